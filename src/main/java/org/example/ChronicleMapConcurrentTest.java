@@ -1,6 +1,8 @@
 package org.example;
 
 import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -8,7 +10,6 @@ import java.nio.file.Paths;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
-import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -17,6 +18,7 @@ public class ChronicleMapConcurrentTest {
     private static final int NUM_THREADS = 10;
     private static final int NUM_ENTRIES = 1_000_000;
     private static final int OPERATIONS_PER_THREAD = 100_000;
+    private static final long SEED = 42L;
     private static final Path CHRONICLE_MAP_FILE = Paths.get("chronicle-map.dat");
 
     public static void main(String[] args) throws IOException, InterruptedException {
@@ -47,9 +49,15 @@ public class ChronicleMapConcurrentTest {
         System.out.println("Starting concurrent access test...");
         ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         CountDownLatch latch = new CountDownLatch(NUM_THREADS);
+        WorkloadGenerator workload = WorkloadGenerator.builder(NUM_ENTRIES)
+                .seed(SEED)
+                .hotspot(0.01, 0.9) // 1% of symbols take 90% of the operations
+                .mix(1, 1, 0)       // 50% read, 50% write
+                .build();
+        System.out.println("Workload: " + workload);
 
         for (int i = 0; i < NUM_THREADS; i++) {
-            executor.execute(new ChronicleMapTask(map, latch));
+            executor.execute(new ChronicleMapTask(map, latch, workload.stream(i)));
         }
 
         latch.await(); // Wait for all threads to finish
@@ -77,26 +85,27 @@ public class ChronicleMapConcurrentTest {
     static class ChronicleMapTask implements Runnable {
         private final ChronicleMap<String, String> map;
         private final CountDownLatch latch;
-        private final Random random = new Random();
+        private final WorkloadStream stream;
 
-        public ChronicleMapTask(ChronicleMap<String, String> map, CountDownLatch latch) {
+        public ChronicleMapTask(ChronicleMap<String, String> map, CountDownLatch latch, WorkloadStream stream) {
             this.map = map;
             this.latch = latch;
+            this.stream = stream;
         }
 
         @Override
         public void run() {
             long start = System.nanoTime();
             for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
-                int keyIndex = random.nextInt(NUM_ENTRIES);
+                int keyIndex = stream.nextKey();
                 String key = "SYM" + keyIndex;
 
-                if (random.nextBoolean()) {
-                    // 50% Read
-                    map.get(key);
-                } else {
-                    // 50% Write
-                    map.put(key, "VALUE" + keyIndex);
+                switch (stream.nextOperation()) {
+                    case READ -> map.get(key);
+                    case WRITE -> map.put(key, "VALUE" + keyIndex);
+                    case COMPUTE -> map.compute(key, (k, v) -> v == null
+                            ? "VALUE" + keyIndex
+                            : "VALUE" + (Long.parseLong(v, 5, v.length(), 10) + 1)); // Atomic increment
                 }
             }
             long end = System.nanoTime();
@@ -1,27 +1,28 @@
 package org.example;
 
 import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
 import org.zerogc.OptionSymbol;
+import org.zerogc.OptionSymbolUniverse;
 
 import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.util.Random;
 import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
 import static org.zerogc.ChronicleMapPerformanceTest.SYMBOL_LENGTH;
 import static org.zerogc.ChronicleMapPerformanceTest.createAverageSymbol;
 
 public class ChronicleMapPerformanceVirtualThreadTest {
-    private static final Random random = new Random();
     private static final String FILE_PATH = "symbol_map.dat";
     private static final int NUM_SYMBOLS = 5_000_000;
     private static final int NUM_RANDOM_ACCESSES = 1_000_000;
+    private static final int NUM_TASKS = 1_000; // Each virtual thread task owns one workload stream
 
     public static void main(String[] args) throws IOException, InterruptedException {
         File file = new File(FILE_PATH);
@@ -37,12 +38,24 @@ public class ChronicleMapPerformanceVirtualThreadTest {
                 .averageKey(createAverageSymbol(SYMBOL_LENGTH))
                 .createPersistedTo(file);
 
-        // Load symbols using Virtual Threads
+        WorkloadGenerator workload = WorkloadGenerator.builder(NUM_SYMBOLS)
+                .seed(SEED)
+                .zipfian(0.99)
+                .mix(8, 1, 1) // 80% reads, 10% blind writes, 10% read-modify-write
+                .build();
+        System.out.println("Workload: " + workload);
+        OptionSymbol[] allSymbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+
+        // Load symbols using Virtual Threads, one contiguous slice per task
         try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            CompletableFuture<?>[] futures = IntStream.range(0, NUM_SYMBOLS)
-                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
-                        OptionSymbol symbol = generateRandomSymbol();
-                        symbolMap.put(symbol, 100.0 + (Math.random() * 900.0));
+            int sliceSize = (NUM_SYMBOLS + NUM_TASKS - 1) / NUM_TASKS;
+            CompletableFuture<?>[] futures = IntStream.range(0, NUM_TASKS)
+                    .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                        WorkloadStream stream = workload.stream(t);
+                        int end = Math.min(NUM_SYMBOLS, (t + 1) * sliceSize);
+                        for (int i = t * sliceSize; i < end; i++) {
+                            symbolMap.put(allSymbols[i], 100.0 + (stream.random().nextDouble() * 900.0));
+                        }
                     }, executor))
                     .toArray(CompletableFuture[]::new);
             CompletableFuture.allOf(futures).join();
@@ -52,15 +65,21 @@ public class ChronicleMapPerformanceVirtualThreadTest {
         System.out.printf("Map loading completed in %.2f seconds\n", elapsedTime(startLoadTime));
 
         // Perform random access using Virtual Threads
-        OptionSymbol[] allSymbols = symbolMap.keySet().toArray(OptionSymbol[]::new);
         long startAccessTime = System.nanoTime();
 
         try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            CompletableFuture<?>[] futures = IntStream.range(0, NUM_RANDOM_ACCESSES)
-                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
-                        int index = random.nextInt(allSymbols.length);
-                        OptionSymbol symbol = allSymbols[index];
-                        symbolMap.put(symbol, symbolMap.get(symbol) + 1.0);
+            int accessesPerTask = NUM_RANDOM_ACCESSES / NUM_TASKS;
+            CompletableFuture<?>[] futures = IntStream.range(0, NUM_TASKS)
+                    .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                        WorkloadStream stream = workload.stream(NUM_TASKS + t);
+                        for (int i = 0; i < accessesPerTask; i++) {
+                            OptionSymbol symbol = stream.nextKey(allSymbols);
+                            switch (stream.nextOperation()) {
+                                case READ -> symbolMap.get(symbol);
+                                case WRITE -> symbolMap.put(symbol, 100.0 + (stream.random().nextDouble() * 900.0));
+                                case COMPUTE -> symbolMap.compute(symbol, (k, price) -> price == null ? 100.0 : price + 1.0);
+                            }
+                        }
                     }, executor))
                     .toArray(CompletableFuture[]::new);
             CompletableFuture.allOf(futures).join();
@@ -73,14 +92,6 @@ public class ChronicleMapPerformanceVirtualThreadTest {
         System.out.println("Test completed and map closed.");
     }
 
-    private static OptionSymbol generateRandomSymbol() {
-        String ticker = "AAPL";
-        OptionSymbol.OptionType type = random.nextBoolean() ? OptionSymbol.OptionType.CALL : OptionSymbol.OptionType.PUT;
-        LocalDate expDate = LocalDate.now().plusDays(random.nextInt(730) + 1);
-        BigDecimal strikePrice = BigDecimal.valueOf(100 + (Math.random() * 900.0));
-        return new OptionSymbol(ticker, type, expDate, strikePrice);
-    }
-
     private static void printHeapMemoryUsage(String message) {
         MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
         MemoryUsage heapMemory = memoryBean.getHeapMemoryUsage();
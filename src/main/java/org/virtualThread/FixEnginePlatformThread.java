@@ -1,5 +1,8 @@
 package org.virtualThread;
 
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.LongAdder;
@@ -12,22 +15,34 @@ public class FixEnginePlatformThread {
         var processor = new FixMessageProcessor();
         var executor = Executors.newCachedThreadPool();
 
-        List<String> fixMessages = FixMessageGenerator.generateFixMessages(TOTAL_MESSAGES);
+        // Bursty order flow: 500K msg/s baseline with 2M msg/s bursts, replayable from the seed
+        WorkloadGenerator workload = FixMessageGenerator.workload()
+                .arrivals(500_000, 2_000_000, 50_000, 10_000)
+                .build();
+        List<String> fixMessages = FixMessageGenerator.generateFixMessages(TOTAL_MESSAGES, workload.stream(0));
+        WorkloadStream arrivals = workload.stream(1);
         long startTime = System.nanoTime(); // Start timer
+        long nextArrival = startTime;
 
-        fixMessages.forEach(fixMessage -> executor.submit(() -> {
-            long messageStart = System.nanoTime();
-            processor.processMessage(fixMessage);
-            long latency = System.nanoTime() - messageStart;
-
-            processedMessages.increment();
-            if (processedMessages.sum() % 100_000 == 0) { // Report every 100K messages
-                long elapsedTime = System.nanoTime() - startTime;
-                double seconds = elapsedTime / 1_000_000_000.0;
-                System.out.printf("Processed: %,d messages | Avg Latency: %.2f µs | Elapsed Time: %.2f sec%n",
-                        processedMessages.sum(), (latency / 1_000.0), seconds);
+        for (String fixMessage : fixMessages) {
+            nextArrival += arrivals.nextArrivalGapNanos();
+            while (System.nanoTime() < nextArrival) {
+                Thread.onSpinWait();
             }
-        }));
+            executor.submit(() -> {
+                long messageStart = System.nanoTime();
+                processor.processMessage(fixMessage);
+                long latency = System.nanoTime() - messageStart;
+
+                processedMessages.increment();
+                if (processedMessages.sum() % 100_000 == 0) { // Report every 100K messages
+                    long elapsedTime = System.nanoTime() - startTime;
+                    double seconds = elapsedTime / 1_000_000_000.0;
+                    System.out.printf("Processed: %,d messages | Avg Latency: %.2f µs | Elapsed Time: %.2f sec%n",
+                            processedMessages.sum(), (latency / 1_000.0), seconds);
+                }
+            });
+        }
 
         executor.close(); // Ensures all tasks complete before exit
 
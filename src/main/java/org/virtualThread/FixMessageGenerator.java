@@ -1,22 +1,90 @@
 package org.virtualThread;
 
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+import org.zerogc.OptionSymbol;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.PriorityQueue;
+import java.util.random.RandomGenerator;
 
 public class FixMessageGenerator {
-    private static final String[] SYMBOLS = {"AAPL", "GOOG", "MSFT", "TSLA", "AMZN"};
-    private static final Random RANDOM = new Random();
+    // Ordered most to least active, so a skewed workload favours the front of the array
+    static final String[] SYMBOLS = {"AAPL", "GOOG", "MSFT", "TSLA", "AMZN"};
+    private static final long SEED = 42L;
+
+    public static WorkloadGenerator.Builder workload() {
+        return WorkloadGenerator.builder(SYMBOLS.length)
+                .seed(SEED)
+                .zipfian(0.99);
+    }
 
-    public static List<String> generateFixMessages(int count) {
+    public static List<String> generateFixMessages(int count, WorkloadStream stream) {
+        RandomGenerator random = stream.random();
         List<String> messages = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             String fixMessage = String.format("8=FIX.4.2|35=D|55=%s|44=%.2f|10=%03d",
-                    SYMBOLS[RANDOM.nextInt(SYMBOLS.length)],
-                    100 + RANDOM.nextDouble() * 1000,  // Random price
-                    RANDOM.nextInt(900) + 100);  // Random checksum
+                    stream.nextKey(SYMBOLS),
+                    100 + random.nextDouble() * 1000,  // Random price
+                    random.nextInt(900) + 100);  // Random checksum
             messages.add(fixMessage);
         }
         return messages;
     }
+
+    /**
+     * NewOrderSingles on option contracts: tag 55 is the OSI symbol of a contract picked by the
+     * stream's key distribution, tag 44 is on a $0.05 tick within +/-2% of its reference price,
+     * except for a {@code fatFingerRate} share of orders priced 50% through it. Sides (tag 54) are
+     * evenly mixed and quantities (tag 38) run from 1 to 10 contracts.
+     * <p>
+     * Each order has a ClOrdID (tag 11) and is followed by an OrderCancelRequest (35=F, tag 41)
+     * after an exponentially distributed lifetime of {@code meanLifetime} messages, as day traders
+     * re-quote. An order filled by then makes its cancel a no-op. Returns {@code count} messages,
+     * cancels included.
+     */
+    public static List<String> generateOptionOrderFlow(int count, WorkloadStream stream, OptionSymbol[] symbolsByRank,
+                                                       double[] referencePrices, double fatFingerRate,
+                                                       double meanLifetime) {
+        RandomGenerator random = stream.random();
+        List<String> messages = new ArrayList<>(count);
+        int[] ranks = new int[count];
+        // Pending cancels packed as (due message index << 32 | order index)
+        PriorityQueue<Long> pendingCancels = new PriorityQueue<>();
+        int orders = 0;
+        while (messages.size() < count) {
+            Long cancel = pendingCancels.peek();
+            if (cancel != null && cancel >>> 32 <= messages.size()) {
+                pendingCancels.poll();
+                int order = (int) (long) cancel;
+                messages.add(String.format("8=FIX.4.2|35=F|55=%s|41=%d|10=%03d",
+                        symbolsByRank[ranks[order]].formatSymbol(), order + 1, random.nextInt(900) + 100));
+                continue;
+            }
+            int rank = stream.nextKey();
+            ranks[orders] = rank;
+            messages.add(optionOrder(rank, orders + 1, random, symbolsByRank, referencePrices, fatFingerRate));
+            long due = messages.size() + (long) (-meanLifetime * Math.log(1 - random.nextDouble()));
+            pendingCancels.add(due << 32 | orders);
+            orders++;
+        }
+        return messages;
+    }
+
+    private static String optionOrder(int rank, long clientOrderId, RandomGenerator random,
+                                      OptionSymbol[] symbolsByRank, double[] referencePrices, double fatFingerRate) {
+        double price = referencePrices[rank] * (1 + (random.nextDouble() - 0.5) * 0.04);
+        if (random.nextDouble() < fatFingerRate) {
+            price *= 1.5;
+        }
+        price = Math.round(price * 20) / 20.0; // Nickel tick, as for options above $3
+        return String.format("8=FIX.4.2|35=D|11=%d|55=%s|54=%d|38=%d|44=%.2f|10=%03d",
+                clientOrderId,
+                symbolsByRank[rank].formatSymbol(),
+                random.nextBoolean() ? 1 : 2,  // Buy or sell
+                random.nextInt(10) + 1,
+                price,
+                random.nextInt(900) + 100);  // Random checksum
+    }
 }
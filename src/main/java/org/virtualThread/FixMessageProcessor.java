@@ -1,11 +1,63 @@
 package org.virtualThread;
 
+import org.zerogc.OptionSymbol;
+
+import java.time.DateTimeException;
 import java.util.concurrent.StructuredTaskScope;
 
 public class FixMessageProcessor {
-    private final RiskCheckService riskCheckService = new RiskCheckService();
+    private static final String SYMBOL_TAG = "|55=";
+    private static final String PRICE_TAG = "|44=";
+    private static final String CANCEL_REQUEST = "|35=F|";
+
+    private final RiskCheckService riskCheckService;
+    private final QuoteSource quoteSource;
+    private final double priceTolerance;
+    private final MatchingEngine matchingEngine;
+
+    public FixMessageProcessor() {
+        this(new RiskCheckService(), null, 0);
+    }
+
+    public FixMessageProcessor(RiskCheckService riskCheckService, QuoteSource quoteSource, double priceTolerance) {
+        this(riskCheckService, quoteSource, priceTolerance, null);
+    }
+
+    /**
+     * @param quoteSource    live quotes to validate tag 44 against, or null to skip the price check
+     * @param priceTolerance maximum relative distance of the order price from the quote (0.05 = 5%)
+     * @param matchingEngine matching stage for orders that pass risk, or null to stop after risk
+     */
+    public FixMessageProcessor(RiskCheckService riskCheckService, QuoteSource quoteSource, double priceTolerance,
+                               MatchingEngine matchingEngine) {
+        this.riskCheckService = riskCheckService;
+        this.quoteSource = quoteSource;
+        this.priceTolerance = priceTolerance;
+        this.matchingEngine = matchingEngine;
+    }
+
+    /**
+     * @return true if the order passed the price and risk checks and, with a matching stage,
+     * was accepted by its book; for a 35=F cancel, true if the order was cancelled
+     */
+    public boolean processMessage(String fixMessage) {
+        if (matchingEngine != null && fixMessage.contains(CANCEL_REQUEST)) {
+            return matchingEngine.onCancel(fixMessage);
+        }
+        double quote = Double.NaN;
+        if (quoteSource != null) {
+            quote = checkPrice(fixMessage);
+            if (Double.isNaN(quote)) {
+                return false;
+            }
+        }
+        if (!passesRiskChecks(fixMessage)) {
+            return false;
+        }
+        return matchingEngine == null || matchingEngine.onNewOrder(fixMessage, quote);
+    }
 
-    public void processMessage(String fixMessage) {
+    private boolean passesRiskChecks(String fixMessage) {
         try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
             // Run risk checks in parallel
             var marginCheck = scope.fork(() -> riskCheckService.checkMargin(fixMessage));
@@ -14,11 +66,47 @@ public class FixMessageProcessor {
             scope.join(); // Wait for both checks
             if (marginCheck.get() && positionCheck.get()) {
                 //System.out.println(Thread.currentThread() + " - Order Passed Risk Checks: " + fixMessage);
+                return true;
             } else {
                // System.out.println(Thread.currentThread() + " - Order Rejected: " + fixMessage);
+                return false;
             }
         } catch (Exception e) {
             System.err.println("Error processing FIX message: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Tag 55 carries the OSI option symbol; returns the quote, or NaN for unknown contracts,
+    // symbols or prices that do not parse (e.g. plain equity orders), and prices too far from the quote
+    private double checkPrice(String fixMessage) {
+        String symbolField = field(fixMessage, SYMBOL_TAG);
+        String priceField = field(fixMessage, PRICE_TAG);
+        if (symbolField == null || priceField == null) {
+            return Double.NaN;
+        }
+        OptionSymbol symbol;
+        double price;
+        try {
+            symbol = OptionSymbol.parseSymbol(symbolField);
+            price = Double.parseDouble(priceField);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            return Double.NaN;
+        }
+        Double quote = quoteSource.quote(symbol);
+        if (quote == null) {
+            return Double.NaN;
+        }
+        return Math.abs(price - quote) <= quote * priceTolerance ? quote : Double.NaN;
+    }
+
+    static String field(String fixMessage, String tag) {
+        int start = fixMessage.indexOf(tag);
+        if (start < 0) {
+            return null;
         }
+        start += tag.length();
+        int end = fixMessage.indexOf('|', start);
+        return fixMessage.substring(start, end < 0 ? fixMessage.length() : end);
     }
 }
@@ -0,0 +1,188 @@
+package org.virtualThread;
+
+import org.zerogc.ExecutionReportBuffer;
+import org.zerogc.OrderBook;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Matching stage run by {@link FixMessageProcessor} after the risk checks.
+ * <p>
+ * Keeps one {@link OrderBook} per tag 55 symbol, created on first use with a price band of
+ * +/-{@code bandFraction} around the reference quote on a {@code tickSize}-cent grid. Orders
+ * arrive on many virtual threads, so each book is guarded by a {@link ReentrantLock} (which,
+ * unlike {@code synchronized}, does not pin the carrier thread) and owns a reusable
+ * {@link ExecutionReportBuffer}.
+ * <p>
+ * An order is identified by its tag 11 ClOrdID, so a client can cancel it with tag 41 (or tag 37
+ * of its execution reports). This engine only supports numeric ClOrdIDs: orders without one, or
+ * with a price or quantity that does not parse, are rejected rather than left uncancellable.
+ */
+public class MatchingEngine {
+    private static final String SYMBOL_TAG = "|55=";
+    private static final String PRICE_TAG = "|44=";
+    private static final String SIDE_TAG = "|54=";
+    private static final String QUANTITY_TAG = "|38=";
+    private static final String ORDER_ID_TAG = "|37=";
+    private static final String CLIENT_ORDER_ID_TAG = "|11=";
+    private static final String ORIG_CLIENT_ORDER_ID_TAG = "|41=";
+
+    private final ConcurrentHashMap<String, Book> books = new ConcurrentHashMap<>();
+    private final long tickSize;
+    private final double bandFraction;
+    private final int maxOrdersPerBook;
+
+    private final LongAdder ordersAccepted = new LongAdder();
+    private final LongAdder ordersRejected = new LongAdder();
+    private final LongAdder ordersDropped = new LongAdder();
+    private final LongAdder fills = new LongAdder();
+    private final LongAdder filledQuantity = new LongAdder();
+    private final LongAdder cancels = new LongAdder();
+
+    public MatchingEngine() {
+        this(5, 0.06, 256); // Options above $3 trade in nickels
+    }
+
+    public MatchingEngine(long tickSize, double bandFraction, int maxOrdersPerBook) {
+        this.tickSize = tickSize;
+        this.bandFraction = bandFraction;
+        this.maxOrdersPerBook = maxOrdersPerBook;
+    }
+
+    private static final class Book {
+        final OrderBook orderBook;
+        final ExecutionReportBuffer reports = new ExecutionReportBuffer();
+        final ReentrantLock lock = new ReentrantLock();
+
+        Book(OrderBook orderBook) {
+            this.orderBook = orderBook;
+        }
+    }
+
+    /**
+     * Matches a 35=D order.
+     *
+     * @param referencePrice quote used to size a new book's price band, or NaN to use the order price
+     * @return false if the order was rejected, by this engine or its book, or the book had no room
+     * to rest its remainder
+     */
+    public boolean onNewOrder(String fixMessage, double referencePrice) {
+        String symbol = FixMessageProcessor.field(fixMessage, SYMBOL_TAG);
+        String priceField = FixMessageProcessor.field(fixMessage, PRICE_TAG);
+        long orderId = parseOrderId(FixMessageProcessor.field(fixMessage, CLIENT_ORDER_ID_TAG));
+        if (symbol == null || priceField == null || orderId == 0) {
+            return reject();
+        }
+        String quantityField = FixMessageProcessor.field(fixMessage, QUANTITY_TAG);
+        double orderPrice;
+        long quantity;
+        try {
+            orderPrice = Double.parseDouble(priceField);
+            quantity = quantityField == null ? 1 : Long.parseLong(quantityField);
+        } catch (NumberFormatException e) {
+            return reject();
+        }
+        // Without a quote source nothing upstream has checked the price, and it may size a new book
+        if (!(orderPrice > 0) || Double.isInfinite(orderPrice)) {
+            return reject();
+        }
+        long price = Math.round(orderPrice * 100);
+        String sideField = FixMessageProcessor.field(fixMessage, SIDE_TAG);
+        OrderBook.Side side = "2".equals(sideField) ? OrderBook.Side.SELL : OrderBook.Side.BUY;
+
+        long reference = Double.isNaN(referencePrice) ? price : Math.round(referencePrice * 100);
+        Book book = books.computeIfAbsent(symbol, s -> newBook(s, reference));
+        book.lock.lock();
+        try {
+            book.reports.clear();
+            boolean accepted = book.orderBook.add(orderId, side, price, quantity, book.reports);
+            publish(book.reports);
+            if (accepted) {
+                ordersAccepted.increment();
+            } else if (book.reports.size() > 0
+                    && book.reports.getType(book.reports.size() - 1) == ExecutionReportBuffer.ExecType.CANCELED) {
+                ordersDropped.increment(); // Valid, but the book's order pool is full
+            } else {
+                ordersRejected.increment();
+            }
+            return accepted;
+        } finally {
+            book.lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the resting order named by tag 41 (the client's ClOrdID) or tag 37 of a 35=F message.
+     */
+    public boolean onCancel(String fixMessage) {
+        String symbol = FixMessageProcessor.field(fixMessage, SYMBOL_TAG);
+        String orderIdField = FixMessageProcessor.field(fixMessage, ORIG_CLIENT_ORDER_ID_TAG);
+        if (orderIdField == null) {
+            orderIdField = FixMessageProcessor.field(fixMessage, ORDER_ID_TAG);
+        }
+        long orderId = parseOrderId(orderIdField);
+        Book book = symbol == null ? null : books.get(symbol);
+        if (book == null || orderId == 0) {
+            return false;
+        }
+        book.lock.lock();
+        try {
+            book.reports.clear();
+            boolean cancelled = book.orderBook.cancel(orderId, book.reports);
+            publish(book.reports);
+            if (cancelled) {
+                cancels.increment();
+            }
+            return cancelled;
+        } finally {
+            book.lock.unlock();
+        }
+    }
+
+    public int bookCount() {
+        return books.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MatchingEngine[books=%,d accepted=%,d rejected=%,d dropped=%,d fills=%,d filledQty=%,d cancels=%,d]",
+                books.size(), ordersAccepted.sum(), ordersRejected.sum(), ordersDropped.sum(),
+                fills.sum(), filledQuantity.sum(), cancels.sum());
+    }
+
+    // A real engine would hand the reports to the session here; the demo only tallies them
+    private void publish(ExecutionReportBuffer reports) {
+        for (int i = 0; i < reports.size(); i++) {
+            if (reports.getType(i) == ExecutionReportBuffer.ExecType.FILL) {
+                fills.increment();
+                filledQuantity.add(reports.getQuantity(i));
+            }
+        }
+    }
+
+    private boolean reject() {
+        ordersRejected.increment();
+        return false;
+    }
+
+    // Order ids are positive numbers; 0 for a missing or non-numeric ClOrdID
+    private static long parseOrderId(String field) {
+        if (field == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(field));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private Book newBook(String symbol, long referencePrice) {
+        long band = Math.max(tickSize, Math.round(referencePrice * bandFraction));
+        long minPrice = Math.max(0, referencePrice - band) / tickSize * tickSize;
+        int levels = (int) ((referencePrice + band - minPrice) / tickSize + 1);
+        return new Book(new OrderBook(symbol, minPrice, levels, tickSize, maxOrdersPerBook));
+    }
+}
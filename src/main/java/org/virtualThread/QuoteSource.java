@@ -0,0 +1,12 @@
+package org.virtualThread;
+
+import org.zerogc.OptionSymbol;
+
+/**
+ * Live quote lookup used to validate an order's limit price (tag 44).
+ * Typically {@code symbolMap::get} or a {@code NearCache::get} in front of it.
+ */
+@FunctionalInterface
+public interface QuoteSource {
+    Double quote(OptionSymbol symbol);
+}
@@ -2,18 +2,28 @@ package org.virtualThread;
 
 
 public class RiskCheckService {
+    private final int simulatedLatencyMs;
+
+    public RiskCheckService() {
+        this(1);
+    }
+
+    public RiskCheckService(int simulatedLatencyMs) {
+        this.simulatedLatencyMs = simulatedLatencyMs;
+    }
+
     public boolean checkMargin(String order) {
-        sleep(1); // Simulate latency
+        sleep(simulatedLatencyMs); // Simulate latency
         return true;
     }
 
     public boolean checkPosition(String order) {
-        sleep(1); // Simulate latency
+        sleep(simulatedLatencyMs); // Simulate latency
         return true;
     }
 
     private void sleep(int ms) {
+        if (ms <= 0) return;
         try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
     }
 }
-
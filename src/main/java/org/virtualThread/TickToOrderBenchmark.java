@@ -0,0 +1,205 @@
+package org.virtualThread;
+
+import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.LatencyHistogram;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+import org.zerogc.OptionSymbol;
+import org.zerogc.OptionSymbolUniverse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
+import static org.zerogc.ChronicleMapPerformanceTest.SYMBOL_LENGTH;
+import static org.zerogc.ChronicleMapPerformanceTest.createAverageSymbol;
+
+/**
+ * End-to-end tick-to-order benchmark joining the FIX engine and the option price store.
+ * <p>
+ * A market-data writer thread keeps updating quotes in the ChronicleMap while NewOrderSingles
+ * arrive on virtual threads. Each order is decoded, its tag 44 price is validated against the
+ * live quote, the risk checks run, the order is matched in its symbol's book, and the decision
+ * is timed. Latency is measured from the order's scheduled arrival time, so a backlog in the
+ * submitter counts against it. Quotes move across the whole map while orders concentrate on the
+ * hottest contracts, which also bounds the number of order books the matching stage creates.
+ * Most orders are cancelled after a short lifetime unless filled first, so the books hold a
+ * steady population of resting orders instead of filling up; cancels count toward the order rate.
+ */
+public class TickToOrderBenchmark {
+    private static final int NUM_SYMBOLS = 1_000_000;
+    private static final int ORDER_CONTRACTS = 5_000;     // Orders go to the hottest contracts only
+    private static final double PRICE_TOLERANCE = 0.05;   // Reject orders more than 5% from the quote
+    private static final double FAT_FINGER_RATE = 0.02;   // Share of orders priced to fail the check
+    private static final double MEAN_ORDER_LIFETIME = 500;  // Messages between an order and its cancel
+    private static final int RUN_SECONDS = 2;
+    private static final int[] QUOTE_RATES = {0, 100_000, 500_000};
+    private static final int[] ORDER_RATES = {10_000, 50_000, 100_000, 200_000};
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Creating and loading ChronicleMap with " + NUM_SYMBOLS + " option quotes...");
+        ChronicleMap<OptionSymbol, Double> symbolMap = ChronicleMap
+                .of(OptionSymbol.class, Double.class)
+                .name("tick-to-order-map")
+                .entries(NUM_SYMBOLS)
+                .averageKey(createAverageSymbol(SYMBOL_LENGTH))
+                .putReturnsNull(true)
+                .create();
+
+        OptionSymbol[] symbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        double[] referencePrices = new double[NUM_SYMBOLS];
+        RandomGenerator random = WorkloadGenerator.builder(NUM_SYMBOLS).seed(SEED).build().stream(0).random();
+        for (int i = 0; i < NUM_SYMBOLS; i++) {
+            referencePrices[i] = 100.0 + random.nextDouble() * 900.0;
+            symbolMap.put(symbols[i], referencePrices[i]);
+        }
+        // Orders are priced around referencePrices[rank], so every rank must own its own quote
+        if (symbolMap.size() != NUM_SYMBOLS) {
+            throw new IllegalStateException("Universe has duplicate contracts: " + symbolMap.size()
+                    + " quotes for " + NUM_SYMBOLS + " ranks");
+        }
+
+        System.out.printf("%n%12s %12s %12s %12s %9s %10s %10s %10s %10s%n",
+                "quotes/s", "quotes/s", "orders/s", "orders/s", "accepted", "p50 µs", "p99 µs", "p99.9 µs", "max µs");
+        System.out.printf("%12s %12s %12s %12s %9s%n", "(target)", "(actual)", "(target)", "(actual)", "");
+        List<String> engineStats = new ArrayList<>();
+        for (int quoteRate : QUOTE_RATES) {
+            for (int orderRate : ORDER_RATES) {
+                // Fresh books per scenario: client order ids restart with each generated flow.
+                // No simulated risk latency: measure the engine and the store, not Thread.sleep
+                var matchingEngine = new MatchingEngine();
+                var processor = new FixMessageProcessor(new RiskCheckService(0), symbolMap::get,
+                        PRICE_TOLERANCE, matchingEngine);
+                runScenario(symbolMap, symbols, referencePrices, processor, quoteRate, orderRate);
+                engineStats.add(String.format("%,9d quotes/s %,9d orders/s: %s", quoteRate, orderRate, matchingEngine));
+            }
+        }
+
+        System.out.println();
+        engineStats.forEach(System.out::println);
+        symbolMap.close();
+        System.out.println("\nBenchmark completed and map closed.");
+    }
+
+    private static void runScenario(ChronicleMap<OptionSymbol, Double> symbolMap, OptionSymbol[] symbols,
+                                    double[] referencePrices, FixMessageProcessor processor,
+                                    int quoteRate, int orderRate) throws InterruptedException {
+        int orderCount = orderRate * RUN_SECONDS;
+        WorkloadGenerator orderFlow = WorkloadGenerator.builder(ORDER_CONTRACTS)
+                .seed(SEED + orderRate)
+                .zipfian(0.99)
+                .arrivals(orderRate, orderRate * 4.0, 1_000, 100)
+                .build();
+        List<String> orders = FixMessageGenerator.generateOptionOrderFlow(
+                orderCount, orderFlow.stream(0), symbols, referencePrices, FAT_FINGER_RATE, MEAN_ORDER_LIFETIME);
+        int newOrders = 0;
+        for (String order : orders) {
+            if (!order.contains("|35=F|")) newOrders++;
+        }
+
+        MarketDataWriter writer = null;
+        Thread writerThread = null;
+        if (quoteRate > 0) {
+            WorkloadGenerator quoteFlow = WorkloadGenerator.builder(NUM_SYMBOLS)
+                    .seed(SEED + quoteRate)
+                    .zipfian(0.99)
+                    .arrivals(quoteRate, quoteRate * 2.0, 10_000, 1_000)
+                    .build();
+            writer = new MarketDataWriter(symbolMap, symbols, referencePrices, quoteFlow.stream(0));
+            writerThread = new Thread(writer, "market-data-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+
+        long[] latencies = new long[orderCount];
+        LongAdder accepted = new LongAdder();
+        WorkloadStream arrivals = orderFlow.stream(1);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long nextArrival = start;
+            for (int i = 0; i < orderCount; i++) {
+                nextArrival += arrivals.nextArrivalGapNanos();
+                while (System.nanoTime() < nextArrival) {
+                    Thread.onSpinWait();
+                }
+                final int index = i;
+                final long scheduledAt = nextArrival;
+                executor.submit(() -> {
+                    String message = orders.get(index);
+                    if (processor.processMessage(message) && !message.contains("|35=F|")) {
+                        accepted.increment();
+                    }
+                    latencies[index] = System.nanoTime() - scheduledAt;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long quoteUpdates = 0;
+        if (writer != null) {
+            writer.stop();
+            writerThread.join();
+            quoteUpdates = writer.getUpdates();
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long latency : latencies) {
+            histogram.record(latency);
+        }
+        double seconds = elapsed / 1_000_000_000.0;
+        System.out.printf("%,12d %,12.0f %,12d %,12.0f %8.2f%% %10.2f %10.2f %10.2f %10.2f%n",
+                quoteRate, quoteUpdates / seconds, orderRate, orderCount / seconds,
+                accepted.sum() * 100.0 / newOrders,
+                histogram.valueAtPercentile(50) / 1_000.0, histogram.valueAtPercentile(99) / 1_000.0,
+                histogram.valueAtPercentile(99.9) / 1_000.0, histogram.getMax() / 1_000.0);
+    }
+
+    /**
+     * Publishes quotes within +/-0.5% of each contract's reference price at the stream's arrival rate.
+     */
+    static class MarketDataWriter implements Runnable {
+        private final ChronicleMap<OptionSymbol, Double> symbolMap;
+        private final OptionSymbol[] symbols;
+        private final double[] referencePrices;
+        private final WorkloadStream stream;
+        private volatile boolean running = true;
+        private volatile long updates;
+
+        MarketDataWriter(ChronicleMap<OptionSymbol, Double> symbolMap, OptionSymbol[] symbols,
+                         double[] referencePrices, WorkloadStream stream) {
+            this.symbolMap = symbolMap;
+            this.symbols = symbols;
+            this.referencePrices = referencePrices;
+            this.stream = stream;
+        }
+
+        @Override
+        public void run() {
+            RandomGenerator random = stream.random();
+            long count = 0;
+            long nextTick = System.nanoTime();
+            while (running) {
+                nextTick += stream.nextArrivalGapNanos();
+                while (running && System.nanoTime() < nextTick) {
+                    Thread.onSpinWait();
+                }
+                int rank = stream.nextKey();
+                symbolMap.put(symbols[rank], referencePrices[rank] * (1 + (random.nextDouble() - 0.5) * 0.01));
+                count++;
+            }
+            updates = count;
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        long getUpdates() {
+            return updates;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.workload;
+
+/**
+ * How a workload picks key ranks. Rank 0 is the hottest key, so callers should
+ * order their key universe from most to least active (see
+ * {@link org.zerogc.OptionSymbolUniverse}).
+ */
+public enum KeyDistribution {
+    UNIFORM,  // every key equally likely
+    ZIPFIAN,  // P(rank k) ~ 1 / (k + 1)^theta
+    HOTSPOT   // a small hot set receives a fixed share of all operations
+}
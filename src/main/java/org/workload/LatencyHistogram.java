@@ -0,0 +1,98 @@
+package org.workload;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear latency histogram in nanoseconds: exact below 64 ns, then 32 sub-buckets per
+ * power of two (about 3% error). Recording is allocation-free and not thread-safe, so each
+ * worker records into its own histogram and the results are {@link #merge merged} at the end.
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + 58 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucketOf(nanos)]++;
+        totalCount++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100).
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * One-line summary in microseconds, matching the units the demos already print.
+     */
+    public String summary() {
+        return String.format("p50: %.2f µs | p90: %.2f µs | p99: %.2f µs | p99.9: %.2f µs | max: %.2f µs | mean: %.2f µs",
+                valueAtPercentile(50) / 1_000.0, valueAtPercentile(90) / 1_000.0,
+                valueAtPercentile(99) / 1_000.0, valueAtPercentile(99.9) / 1_000.0,
+                max / 1_000.0, getMean() / 1_000.0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 5; // value >>> shift is in [32, 64)
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,10 @@
+package org.workload;
+
+/**
+ * Kind of map operation drawn from a workload's read/write/compute mix.
+ */
+public enum Operation {
+    READ,    // plain lookup
+    WRITE,   // blind put of a new value
+    COMPUTE  // read-modify-write of the existing value
+}
@@ -0,0 +1,251 @@
+package org.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded, replayable workload description shared by the map tests and the FIX engines.
+ * <p>
+ * The generator itself is immutable and thread-safe; it only holds the configuration
+ * and the precomputed Zipfian constants. Each worker asks for its own
+ * {@link WorkloadStream} via {@link #stream(int)}, so there is no shared RNG to
+ * contend on and the same (seed, streamId) pair always replays the same sequence.
+ */
+public final class WorkloadGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final int keyCount;
+    private final KeyDistribution distribution;
+
+    // Zipfian constants (Gray et al., "Quickly Generating Billion-Record Synthetic Databases")
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double halfPowTheta;
+
+    // Hotspot parameters
+    private final int hotKeyCount;
+    private final double hotOpFraction;
+
+    // Cumulative operation mix thresholds
+    private final double readThreshold;
+    private final double writeThreshold;
+
+    // Bursty arrivals: a two-state (quiet/burst) Poisson process
+    private final double baseRatePerSec;
+    private final double burstRatePerSec;
+    private final double burstEnterProbability;
+    private final double burstExitProbability;
+
+    private WorkloadGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.keyCount = builder.keyCount;
+        this.distribution = builder.distribution;
+
+        this.theta = builder.theta;
+        if (distribution == KeyDistribution.ZIPFIAN) {
+            double zeta2 = zeta(2, theta);
+            this.zetaN = zeta(keyCount, theta);
+            this.alpha = 1.0 / (1.0 - theta);
+            this.eta = (1 - Math.pow(2.0 / keyCount, 1 - theta)) / (1 - zeta2 / zetaN);
+            this.halfPowTheta = Math.pow(0.5, theta);
+        } else {
+            this.zetaN = 0;
+            this.alpha = 0;
+            this.eta = 0;
+            this.halfPowTheta = 0;
+        }
+
+        this.hotKeyCount = Math.max(1, (int) (keyCount * builder.hotKeyFraction));
+        this.hotOpFraction = builder.hotOpFraction;
+
+        double total = builder.readWeight + builder.writeWeight + builder.computeWeight;
+        this.readThreshold = builder.readWeight / total;
+        this.writeThreshold = (builder.readWeight + builder.writeWeight) / total;
+
+        this.baseRatePerSec = builder.baseRatePerSec;
+        this.burstRatePerSec = builder.burstRatePerSec;
+        this.burstEnterProbability = builder.meanQuietLength > 0 ? 1.0 / builder.meanQuietLength : 0;
+        this.burstExitProbability = builder.meanBurstLength > 0 ? 1.0 / builder.meanBurstLength : 1;
+    }
+
+    public static Builder builder(int keyCount) {
+        return new Builder(keyCount);
+    }
+
+    /**
+     * Creates the independent, deterministic stream for one worker.
+     * Not thread-safe: each thread (or virtual thread task) should own its stream.
+     */
+    public WorkloadStream stream(int streamId) {
+        return new WorkloadStream(this, mix64(seed + (streamId + 1L) * GOLDEN_GAMMA));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public KeyDistribution getDistribution() {
+        return distribution;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("seed=%d keys=%,d dist=%s mix(r/w/c)=%.2f/%.2f/%.2f",
+                seed, keyCount, distribution,
+                readThreshold, writeThreshold - readThreshold, 1 - writeThreshold);
+    }
+
+    int nextKey(SplittableRandom rng) {
+        switch (distribution) {
+            case ZIPFIAN:
+                return nextZipfian(rng.nextDouble());
+            case HOTSPOT:
+                if (hotKeyCount >= keyCount || rng.nextDouble() < hotOpFraction) {
+                    return rng.nextInt(hotKeyCount);
+                }
+                return hotKeyCount + rng.nextInt(keyCount - hotKeyCount);
+            default:
+                return rng.nextInt(keyCount);
+        }
+    }
+
+    Operation nextOperation(SplittableRandom rng) {
+        double u = rng.nextDouble();
+        if (u < readThreshold) return Operation.READ;
+        if (u < writeThreshold) return Operation.WRITE;
+        return Operation.COMPUTE;
+    }
+
+    boolean isPaced() {
+        return baseRatePerSec > 0;
+    }
+
+    double rate(boolean inBurst) {
+        return inBurst ? burstRatePerSec : baseRatePerSec;
+    }
+
+    boolean nextState(boolean inBurst, double u) {
+        return inBurst ? u >= burstExitProbability : u < burstEnterProbability;
+    }
+
+    private int nextZipfian(double u) {
+        double uz = u * zetaN;
+        if (uz < 1.0) return 0;
+        if (uz < 1.0 + halfPowTheta) return 1;
+        int rank = (int) (keyCount * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(rank, keyCount - 1);
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1.0 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    // SplitMix64 finalizer, so neighbouring stream ids get unrelated seeds
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static final class Builder {
+        private final int keyCount;
+        private long seed = 42L;
+        private KeyDistribution distribution = KeyDistribution.UNIFORM;
+        private double theta = 0.99;
+        private double hotKeyFraction = 0.01;
+        private double hotOpFraction = 0.9;
+        private double readWeight = 1;
+        private double writeWeight = 1;
+        private double computeWeight = 0;
+        private double baseRatePerSec;
+        private double burstRatePerSec;
+        private int meanQuietLength;
+        private int meanBurstLength;
+
+        private Builder(int keyCount) {
+            if (keyCount <= 0) {
+                throw new IllegalArgumentException("keyCount must be positive: " + keyCount);
+            }
+            this.keyCount = keyCount;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder uniform() {
+            this.distribution = KeyDistribution.UNIFORM;
+            return this;
+        }
+
+        /**
+         * Zipfian ranks with skew {@code theta} in (0, 1); YCSB uses 0.99.
+         */
+        public Builder zipfian(double theta) {
+            if (theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("theta must be in (0, 1): " + theta);
+            }
+            this.distribution = KeyDistribution.ZIPFIAN;
+            this.theta = theta;
+            return this;
+        }
+
+        /**
+         * The first {@code hotKeyFraction} of ranks receive {@code hotOpFraction} of all operations.
+         */
+        public Builder hotspot(double hotKeyFraction, double hotOpFraction) {
+            if (hotKeyFraction <= 0 || hotKeyFraction > 1 || hotOpFraction < 0 || hotOpFraction > 1) {
+                throw new IllegalArgumentException("fractions must be in (0, 1]");
+            }
+            this.distribution = KeyDistribution.HOTSPOT;
+            this.hotKeyFraction = hotKeyFraction;
+            this.hotOpFraction = hotOpFraction;
+            return this;
+        }
+
+        /**
+         * Relative weights of reads, writes and read-modify-write computes.
+         */
+        public Builder mix(double read, double write, double compute) {
+            if (read < 0 || write < 0 || compute < 0 || read + write + compute == 0) {
+                throw new IllegalArgumentException("mix weights must be non-negative and not all zero");
+            }
+            this.readWeight = read;
+            this.writeWeight = write;
+            this.computeWeight = compute;
+            return this;
+        }
+
+        /**
+         * Bursty arrivals: Poisson at {@code baseRatePerSec}, switching to {@code burstRatePerSec}
+         * for on average {@code meanBurstLength} arrivals after on average {@code meanQuietLength}
+         * quiet arrivals. A base rate of 0 (the default) means unpaced.
+         */
+        public Builder arrivals(double baseRatePerSec, double burstRatePerSec,
+                                int meanQuietLength, int meanBurstLength) {
+            if (baseRatePerSec < 0 || burstRatePerSec < baseRatePerSec) {
+                throw new IllegalArgumentException("burst rate must be >= base rate >= 0");
+            }
+            this.baseRatePerSec = baseRatePerSec;
+            this.burstRatePerSec = burstRatePerSec;
+            this.meanQuietLength = meanQuietLength;
+            this.meanBurstLength = meanBurstLength;
+            return this;
+        }
+
+        public WorkloadGenerator build() {
+            return new WorkloadGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.workload;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * One worker's deterministic view of a {@link WorkloadGenerator}.
+ * Owns a private {@link SplittableRandom}, so it must not be shared between threads.
+ */
+public final class WorkloadStream {
+    private final WorkloadGenerator generator;
+    private final SplittableRandom rng;
+    private boolean inBurst;
+
+    WorkloadStream(WorkloadGenerator generator, long streamSeed) {
+        this.generator = generator;
+        this.rng = new SplittableRandom(streamSeed);
+    }
+
+    /**
+     * Next key rank in [0, keyCount), 0 being the hottest.
+     */
+    public int nextKey() {
+        return generator.nextKey(rng);
+    }
+
+    public <K> K nextKey(K[] keysByRank) {
+        return keysByRank[nextKey()];
+    }
+
+    public Operation nextOperation() {
+        return generator.nextOperation(rng);
+    }
+
+    /**
+     * Gap to the next arrival in nanoseconds, or 0 when the workload is unpaced.
+     */
+    public long nextArrivalGapNanos() {
+        if (!generator.isPaced()) {
+            return 0;
+        }
+        double gapSeconds = -Math.log(1.0 - rng.nextDouble()) / generator.rate(inBurst);
+        inBurst = generator.nextState(inBurst, rng.nextDouble());
+        return (long) (gapSeconds * 1_000_000_000L);
+    }
+
+    public boolean isInBurst() {
+        return inBurst;
+    }
+
+    /**
+     * The stream's own RNG, for payload values (prices, quantities) that should replay with the keys.
+     */
+    public RandomGenerator random() {
+        return rng;
+    }
+}
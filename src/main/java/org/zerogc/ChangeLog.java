@@ -0,0 +1,274 @@
+package org.zerogc;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the price change log shared by {@link ReplicatedPriceStore} and
+ * {@link PriceReplica}, on disk and on the wire.
+ * <p>
+ * A log file starts with a magic number, its epoch and its base sequence, followed by frames.
+ * The epoch is a random id drawn when the log is created. Sequence numbers only compare within one
+ * epoch, so a replica that applied part of an earlier log (say, before the leader was rebuilt from
+ * scratch) is reloaded from a snapshot instead of resuming at a sequence of another history. Every
+ * stream from the leader, a TCP connection or a snapshot file, starts with its epoch.
+ * <p>
+ * Every frame is {@code [type:1][count:4][sequence:8][timeMicros:8]}, {@code count} entries of
+ * {@value #ENTRY_SIZE} bytes (the {@link PackedOptionKey} layout plus the price) and a CRC32 of
+ * all preceding bytes of the frame. For a {@link #BATCH} the sequence is that of its first entry
+ * and entries are numbered consecutively; snapshot frames carry the sequence the snapshot
+ * started at; a {@link #HEARTBEAT} carries the leader's latest sequence.
+ */
+final class ChangeLog {
+    static final long MAGIC = 0x5052_4943_454C_4F47L; // "PRICELOG"
+    static final int FILE_HEADER_SIZE = 8 + 8 + 8;
+    static final int EPOCH_SIZE = 8;
+
+    static final byte BATCH = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte SNAPSHOT_END = 3;
+    static final byte HEARTBEAT = 4;
+
+    static final int HEADER_SIZE = 1 + 4 + 8 + 8;
+    static final int ENTRY_SIZE = PackedOptionKey.SIZE + 8;
+    static final int TRAILER_SIZE = 4;
+    static final int MAX_FRAME_ENTRIES = 1 << 16;
+
+    private static final int COUNT_OFFSET = 1;
+    private static final int EPOCH_OFFSET = 8;
+    private static final int BASE_SEQUENCE_OFFSET = 16;
+
+    private ChangeLog() {
+    }
+
+    static int frameSize(int count) {
+        return HEADER_SIZE + count * ENTRY_SIZE + TRAILER_SIZE;
+    }
+
+    /**
+     * Writes a frame header with a zero count at the buffer position; {@link #endFrame} patches it.
+     */
+    static int beginFrame(ByteBuffer buffer, byte type, long sequence, long timeMicros) {
+        int start = buffer.position();
+        buffer.put(type).putInt(0).putLong(sequence).putLong(timeMicros);
+        return start;
+    }
+
+    static void endFrame(ByteBuffer buffer, int start, int count, CRC32 crc) {
+        buffer.putInt(start + COUNT_OFFSET, count);
+        crc.reset();
+        crc.update(buffer.duplicate().limit(buffer.position()).position(start));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    static void putEntry(ByteBuffer buffer, OptionSymbol symbol, double price) {
+        buffer.putLong(PackedOptionKey.encodeUnderlying(symbol.getUnderlyingSymbol()))
+                .put((byte) symbol.getOptionType().ordinal())
+                .putInt((int) symbol.getExpirationDate().toEpochDay())
+                .putLong(OptionSymbolMarshaller.strikeMillis(symbol.getStrikePrice()))
+                .putDouble(price);
+    }
+
+    static void putEntry(ByteBuffer buffer, PackedOptionKey key, double price) {
+        buffer.putLong(key.underlyingCode())
+                .put((byte) key.optionType().ordinal())
+                .putInt(key.expiryEpochDay())
+                .putLong(key.strikeMillis())
+                .putDouble(price);
+    }
+
+    static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    static void readFully(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /**
+     * Random id for a new log; never 0, which a replica uses for "nothing applied yet".
+     */
+    static long newEpoch() {
+        long epoch;
+        do {
+            epoch = ThreadLocalRandom.current().nextLong();
+        } while (epoch == 0);
+        return epoch;
+    }
+
+    static void writeFileHeader(FileChannel log, long epoch, long baseSequence) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE)
+                .putLong(MAGIC).putLong(epoch).putLong(baseSequence).flip();
+        while (header.hasRemaining()) {
+            log.write(header, header.position());
+        }
+    }
+
+    static long readEpoch(FileChannel log) throws IOException {
+        return readFileHeader(log).getLong(EPOCH_OFFSET);
+    }
+
+    static long readBaseSequence(FileChannel log) throws IOException {
+        return readFileHeader(log).getLong(BASE_SEQUENCE_OFFSET);
+    }
+
+    private static ByteBuffer readFileHeader(FileChannel log) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (log.read(header, header.position()) < 0) {
+                throw new EOFException("Change log header is incomplete");
+            }
+        }
+        if (header.getLong(0) != MAGIC) {
+            throw new IOException("Not a price change log");
+        }
+        return header;
+    }
+
+    /**
+     * Position of the first frame holding a sequence after {@code sequence}, reading headers only.
+     * Returns {@code limit} if every complete frame before it is older.
+     */
+    static long positionAfter(FileChannel log, long sequence, long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = FILE_HEADER_SIZE;
+        while (position + HEADER_SIZE <= limit) {
+            header.clear();
+            while (header.hasRemaining()) {
+                if (log.read(header, position + header.position()) < 0) {
+                    return position;
+                }
+            }
+            int count = header.getInt(COUNT_OFFSET);
+            if (header.getLong(COUNT_OFFSET + 4) + count - 1 > sequence) {
+                return position;
+            }
+            position += frameSize(count);
+        }
+        return Math.min(position, limit);
+    }
+
+    /**
+     * Reads whole, checksummed frames from a socket or a file. When {@code tailing}, the end of
+     * the channel means "nothing yet" and a partially written frame is left for the next call.
+     */
+    static final class Reader {
+        private final ReadableByteChannel in;
+        private final boolean tailing;
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer buffer = ByteBuffer.allocate(frameSize(1024)).flip();
+        private int frameSize;
+        private long consumed;
+        private boolean endOfStream;
+
+        private byte type;
+        private int count;
+        private long sequence;
+        private long timeMicros;
+
+        Reader(ReadableByteChannel in, boolean tailing) {
+            this.in = in;
+            this.tailing = tailing;
+        }
+
+        /**
+         * Advances to the next complete frame; false if none is available yet or the stream ended.
+         */
+        boolean next() throws IOException {
+            if (frameSize > 0) {
+                buffer.position(buffer.position() + frameSize);
+                consumed += frameSize;
+                frameSize = 0;
+            }
+            while (true) {
+                if (buffer.remaining() >= HEADER_SIZE) {
+                    int start = buffer.position();
+                    int n = buffer.getInt(start + COUNT_OFFSET);
+                    if (n < 0 || n > MAX_FRAME_ENTRIES) {
+                        throw new IOException("Corrupt change log frame at byte " + consumed);
+                    }
+                    int size = frameSize(n);
+                    if (buffer.remaining() >= size) {
+                        crc.reset();
+                        crc.update(buffer.duplicate().limit(start + size - TRAILER_SIZE));
+                        if ((int) crc.getValue() != buffer.getInt(start + size - TRAILER_SIZE)) {
+                            throw new IOException("Change log checksum mismatch at byte " + consumed);
+                        }
+                        type = buffer.get(start);
+                        count = n;
+                        sequence = buffer.getLong(start + COUNT_OFFSET + 4);
+                        timeMicros = buffer.getLong(start + COUNT_OFFSET + 12);
+                        frameSize = size;
+                        return true;
+                    }
+                    if (size > buffer.capacity()) {
+                        buffer = ByteBuffer.allocate(size).put(buffer).flip();
+                    }
+                }
+                buffer.compact();
+                int read = in.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    endOfStream = read < 0 && !tailing;
+                    return false;
+                }
+            }
+        }
+
+        byte type() {
+            return type;
+        }
+
+        int count() {
+            return count;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        long timeMicros() {
+            return timeMicros;
+        }
+
+        /**
+         * Buffer holding the current frame; entry {@code i} starts at {@link #entryOffset}.
+         */
+        ByteBuffer buffer() {
+            return buffer;
+        }
+
+        int entryOffset(int i) {
+            return buffer.position() + HEADER_SIZE + i * ENTRY_SIZE;
+        }
+
+        /**
+         * Bytes of complete frames consumed so far, including the current one.
+         */
+        long consumed() {
+            return consumed + frameSize;
+        }
+
+        boolean isEndOfStream() {
+            return endOfStream;
+        }
+    }
+}
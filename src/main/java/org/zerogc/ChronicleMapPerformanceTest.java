@@ -1,6 +1,8 @@
 package org.zerogc;
 
 import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
 
 import java.io.File;
 import java.io.IOException;
@@ -9,17 +11,17 @@ import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 
 public class ChronicleMapPerformanceTest {
 
-    private static final Random random = new Random();
-    private static final String[] TICKERS = {"AAPL", "MSFT", "GOOGL", "AMZN", "TSLA", "META", "NVDA", "AMD", "JPM", "BAC",
+    public static final long SEED = 42L; // Fixed seed so every run replays the same keys and accesses
+    static final String[] TICKERS = {"AAPL", "MSFT", "GOOGL", "AMZN", "TSLA", "META", "NVDA", "AMD", "JPM", "BAC",
             "INTC", "CSCO", "PFE", "KO", "DIS", "NFLX", "V", "WMT", "PG", "XOM"};
 
     private static final int NUM_SYMBOLS = 5_000_000;
-    public static final int SYMBOL_LENGTH = 200; // Average length of stock symbols
+    public static final int SYMBOL_LENGTH = 4; // Average length of stock symbols
     private static final int NUM_RANDOM_ACCESSES = 1_000_000;
     private static final String FILE_PATH = "symbol_map.dat";
 
@@ -44,7 +46,14 @@ public class ChronicleMapPerformanceTest {
                 .putReturnsNull(true)
                 .createPersistedTo(file);
 
-        loadMapWithStockSymbols(symbolMap);
+        WorkloadGenerator workload = WorkloadGenerator.builder(NUM_SYMBOLS)
+                .seed(SEED)
+                .zipfian(0.99) // Near-the-money front-month contracts take most of the flow
+                .build();
+        System.out.println("Workload: " + workload);
+
+        OptionSymbol[] allSymbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        loadMapWithStockSymbols(symbolMap, allSymbols, workload.stream(0));
         printHeapMemoryUsage("Memory Usages before random access test and load symbols");
         long loadTime = System.nanoTime() - startLoadTime;
         System.out.printf("Map loading completed in %.2f seconds\n",
@@ -54,15 +63,12 @@ public class ChronicleMapPerformanceTest {
         // 2. Perform random access test
         System.out.println("\nPerforming " + NUM_RANDOM_ACCESSES + " random accesses...");
 
-        // not needed in production just for testing purpose
-        OptionSymbol[] allSymbols = symbolMap.keySet().toArray(OptionSymbol[]::new);
-
+        WorkloadStream accessStream = workload.stream(1);
         long startAccessTime = System.nanoTime();
         long hitCount = 0;
 
         for (int i = 0; i < NUM_RANDOM_ACCESSES; i++) {
-            int randomIndex = random.nextInt(allSymbols.length);
-            OptionSymbol randomSymbol = allSymbols[randomIndex];
+            OptionSymbol randomSymbol = accessStream.nextKey(allSymbols);
             Double price = symbolMap.get(randomSymbol);
             symbolMap.put(randomSymbol, price + 1.0); // Update price to simulate write operation
             if (price != null) {
@@ -89,7 +95,7 @@ public class ChronicleMapPerformanceTest {
 
     }
 
-    public static OptionSymbol generateRandomSymbol() {
+    public static OptionSymbol generateRandomSymbol(RandomGenerator random, LocalDate now) {
         // Select a random ticker
         String ticker = TICKERS[random.nextInt(TICKERS.length)];
 
@@ -97,7 +103,6 @@ public class ChronicleMapPerformanceTest {
         OptionSymbol.OptionType type = random.nextBoolean() ? OptionSymbol.OptionType.CALL : OptionSymbol.OptionType.PUT;
 
         // Generate a random expiration date (between now and 2 years in the future)
-        LocalDate now = LocalDate.now();
         int daysToAdd = random.nextInt(730) + 1; // 1 to 730 days (roughly 2 years)
         LocalDate expDate = now.plusDays(daysToAdd);
 
@@ -106,25 +111,26 @@ public class ChronicleMapPerformanceTest {
         double variation = basePrice * 0.4; // 40% variation above or below base price
         double priceOffset = (random.nextDouble() * variation * 2) - variation;
 
-        // Round to nearest 5 or 0.25 depending on price range
-        double strikeValue = basePrice + priceOffset;
-        if (strikeValue < 100) {
-            strikeValue = Math.round(strikeValue * 4) / 4.0; // Round to nearest 0.25
-        } else {
-            strikeValue = Math.round(strikeValue / 5) * 5.0; // Round to nearest 5
-        }
-
-        BigDecimal strikePrice = BigDecimal.valueOf(strikeValue);
+        BigDecimal strikePrice = BigDecimal.valueOf(roundStrike(basePrice + priceOffset));
 
         // Create and return the option symbol
         return new OptionSymbol(ticker, type, expDate, strikePrice);
     }
 
-    private static void loadMapWithStockSymbols(ChronicleMap<OptionSymbol, Double> map) {
-        for (int i = 0; i < NUM_SYMBOLS; i++) {
-            OptionSymbol symbol = generateRandomSymbol();
-            Double price = 100.0 + (Math.random() * 900.0); // Random price between 100 and 1000
-            map.put(symbol, price);
+    // Round to nearest 5 or 0.25 depending on price range
+    static double roundStrike(double strikeValue) {
+        if (strikeValue < 100) {
+            return Math.round(strikeValue * 4) / 4.0; // Round to nearest 0.25
+        }
+        return Math.round(strikeValue / 5) * 5.0; // Round to nearest 5
+    }
+
+    private static void loadMapWithStockSymbols(ChronicleMap<OptionSymbol, Double> map,
+                                                OptionSymbol[] symbols, WorkloadStream stream) {
+        RandomGenerator random = stream.random();
+        for (int i = 0; i < symbols.length; i++) {
+            Double price = 100.0 + (random.nextDouble() * 900.0); // Random price between 100 and 1000
+            map.put(symbols[i], price);
 
             if (i % 100000 == 0) {
                 System.out.println("Loaded " + i + " symbols...");
@@ -132,7 +138,7 @@ public class ChronicleMapPerformanceTest {
         }
     }
 
-    private static int getBaseStockPrice(String ticker) {
+    public static int getBaseStockPrice(String ticker) {
         switch (ticker) {
             case "AAPL": return 175;
             case "MSFT": return 350;
@@ -170,9 +176,13 @@ public class ChronicleMapPerformanceTest {
         System.out.println("-------------------------------------------------");
     }
 
+    /**
+     * Sample key for {@code averageKey(...)} whose underlying ticker is {@code length} characters.
+     * {@link MapSizingAdvisor} measures what the real keys average instead of guessing.
+     */
     public static OptionSymbol createAverageSymbol(int length) {
         OptionSymbol op = new OptionSymbol();
-        op.setUnderlyingSymbol("AAPL");
+        op.setUnderlyingSymbol("AAPLMSFT".repeat(length / 8 + 1).substring(0, Math.max(1, length)));
         op.setOptionType(OptionSymbol.OptionType.CALL);
         op.setExpirationDate(LocalDate.now());
         op.setStrikePrice(BigDecimal.valueOf(150.0));
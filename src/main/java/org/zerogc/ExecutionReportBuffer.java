@@ -0,0 +1,144 @@
+package org.zerogc;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, growable buffer of execution reports produced by an {@link OrderBook}.
+ * <p>
+ * Reports are stored column-wise in primitive arrays, so appending one never allocates once
+ * the buffer has grown to its working size. The caller drains the buffer (for example with
+ * {@link #appendFix}) and {@link #clear() clears} it before the next order.
+ */
+public class ExecutionReportBuffer {
+
+    /**
+     * FIX ExecType (tag 150) of a report.
+     */
+    public enum ExecType {
+        NEW('0'),
+        FILL('F'),
+        CANCELED('4'),
+        REJECTED('8');
+
+        private final char fixCode;
+
+        ExecType(char fixCode) {
+            this.fixCode = fixCode;
+        }
+
+        public char getFixCode() {
+            return fixCode;
+        }
+    }
+
+    private ExecType[] types;
+    private long[] orderIds;
+    private long[] counterpartyIds;
+    private long[] prices;
+    private long[] quantities;
+    private long[] leavesQuantities;
+    private int size;
+
+    public ExecutionReportBuffer() {
+        this(64);
+    }
+
+    public ExecutionReportBuffer(int initialCapacity) {
+        initialCapacity = Math.max(1, initialCapacity);
+        types = new ExecType[initialCapacity];
+        orderIds = new long[initialCapacity];
+        counterpartyIds = new long[initialCapacity];
+        prices = new long[initialCapacity];
+        quantities = new long[initialCapacity];
+        leavesQuantities = new long[initialCapacity];
+    }
+
+    void add(ExecType type, long orderId, long counterpartyId, long price, long quantity, long leavesQuantity) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = type;
+        orderIds[size] = orderId;
+        counterpartyIds[size] = counterpartyId;
+        prices[size] = price;
+        quantities[size] = quantity;
+        leavesQuantities[size] = leavesQuantity;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ExecType getType(int i) {
+        return types[i];
+    }
+
+    public long getOrderId(int i) {
+        return orderIds[i];
+    }
+
+    /**
+     * Resting order on the other side of a fill, 0 for other report types.
+     */
+    public long getCounterpartyId(int i) {
+        return counterpartyIds[i];
+    }
+
+    /**
+     * Price in cents.
+     */
+    public long getPrice(int i) {
+        return prices[i];
+    }
+
+    /**
+     * Filled quantity for fills, otherwise the order quantity the report refers to.
+     */
+    public long getQuantity(int i) {
+        return quantities[i];
+    }
+
+    public long getLeavesQuantity(int i) {
+        return leavesQuantities[i];
+    }
+
+    /**
+     * Renders report {@code i} as a pipe-delimited FIX 35=8 message into a caller-owned builder.
+     */
+    public StringBuilder appendFix(int i, StringBuilder sb) {
+        sb.append("8=FIX.4.2|35=8|150=").append(types[i].getFixCode())
+                .append("|37=").append(orderIds[i]);
+        if (types[i] == ExecType.FILL) {
+            sb.append("|31=");
+            appendPrice(prices[i], sb);
+            sb.append("|32=").append(quantities[i]);
+        } else {
+            sb.append("|44=");
+            appendPrice(prices[i], sb);
+            sb.append("|38=").append(quantities[i]);
+        }
+        return sb.append("|151=").append(leavesQuantities[i]);
+    }
+
+    private static void appendPrice(long priceCents, StringBuilder sb) {
+        long cents = priceCents % 100;
+        sb.append(priceCents / 100).append('.');
+        if (cents < 10) sb.append('0');
+        sb.append(cents);
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        counterpartyIds = Arrays.copyOf(counterpartyIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        leavesQuantities = Arrays.copyOf(leavesQuantities, capacity);
+    }
+}
@@ -0,0 +1,121 @@
+package org.zerogc;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing table of per-group count and sum keyed by a primitive long (an underlying
+ * code, an expiry epoch day, ...). Used as the accumulator of grouping {@link ScanAggregator}s,
+ * so adding to a group never boxes. Not thread-safe; each scan task owns one and they are merged.
+ */
+public final class GroupTotals {
+
+    @FunctionalInterface
+    public interface GroupConsumer {
+        void accept(long group, long count, double sum);
+    }
+
+    private long[] groups;
+    private long[] counts;
+    private double[] sums;
+    private boolean[] used;
+    private int size;
+
+    public GroupTotals() {
+        this(64);
+    }
+
+    public GroupTotals(int expectedGroups) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedGroups * 2) - 1) << 1;
+        groups = new long[capacity];
+        counts = new long[capacity];
+        sums = new double[capacity];
+        used = new boolean[capacity];
+    }
+
+    public void add(long group, double amount) {
+        add(group, 1, amount);
+    }
+
+    public void add(long group, long count, double amount) {
+        int slot = slotOf(group);
+        if (!used[slot]) {
+            if ((size + 1) * 2 > groups.length) {
+                resize();
+                slot = slotOf(group);
+            }
+            used[slot] = true;
+            groups[slot] = group;
+            size++;
+        }
+        counts[slot] += count;
+        sums[slot] += amount;
+    }
+
+    public GroupTotals merge(GroupTotals other) {
+        other.forEach(this::add);
+        return this;
+    }
+
+    public void forEach(GroupConsumer consumer) {
+        for (int i = 0; i < groups.length; i++) {
+            if (used[i]) {
+                consumer.accept(groups[i], counts[i], sums[i]);
+            }
+        }
+    }
+
+    /**
+     * Groups in ascending key order; allocates, so meant for reporting only.
+     */
+    public long[] sortedGroups() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < groups.length; i++) {
+            if (used[i]) result[n++] = groups[i];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public long count(long group) {
+        int slot = slotOf(group);
+        return used[slot] ? counts[slot] : 0;
+    }
+
+    public double sum(long group) {
+        int slot = slotOf(group);
+        return used[slot] ? sums[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slotOf(long group) {
+        int mask = groups.length - 1;
+        long h = group * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (used[slot] && groups[slot] != group) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldGroups = groups;
+        long[] oldCounts = counts;
+        double[] oldSums = sums;
+        boolean[] oldUsed = used;
+        int capacity = oldGroups.length * 2;
+        groups = new long[capacity];
+        counts = new long[capacity];
+        sums = new double[capacity];
+        used = new boolean[capacity];
+        size = 0;
+        for (int i = 0; i < oldGroups.length; i++) {
+            if (oldUsed[i]) {
+                add(oldGroups[i], oldCounts[i], oldSums[i]);
+            }
+        }
+    }
+}
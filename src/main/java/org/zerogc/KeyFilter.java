@@ -0,0 +1,51 @@
+package org.zerogc;
+
+import java.time.LocalDate;
+
+/**
+ * Predicate evaluated by {@link SymbolMapScanner} directly on packed key bytes, before the value
+ * is read. The factories compare primitive fields only, so filtering allocates nothing.
+ */
+@FunctionalInterface
+public interface KeyFilter {
+    KeyFilter ALL = key -> true;
+
+    boolean test(PackedOptionKey key);
+
+    default KeyFilter and(KeyFilter other) {
+        return key -> test(key) && other.test(key);
+    }
+
+    static KeyFilter underlying(String underlying) {
+        long code = PackedOptionKey.encodeUnderlying(underlying);
+        return key -> key.underlyingCode() == code;
+    }
+
+    static KeyFilter optionType(OptionSymbol.OptionType type) {
+        return key -> key.optionType() == type;
+    }
+
+    /**
+     * Expiration between {@code from} and {@code to}, both inclusive.
+     */
+    static KeyFilter expiringBetween(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        return key -> {
+            int day = key.expiryEpochDay();
+            return day >= fromDay && day <= toDay;
+        };
+    }
+
+    /**
+     * Strike between {@code from} and {@code to}, both inclusive, in dollars.
+     */
+    static KeyFilter strikeBetween(double from, double to) {
+        long fromMillis = Math.round(from * 1000);
+        long toMillis = Math.round(to * 1000);
+        return key -> {
+            long strike = key.strikeMillis();
+            return strike >= fromMillis && strike <= toMillis;
+        };
+    }
+}
@@ -0,0 +1,275 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Recommends Chronicle Map sizing from a sample of real keys and values instead of a
+ * hand-picked {@code averageKey}.
+ * <p>
+ * Each sampled pair is measured with the {@link SerializedSize} matching the map's marshallers.
+ * Entries are laid out as size prefix, key, size prefix, value and checksum, and stored in whole
+ * chunks. From that the advisor derives {@code entries} for a target load factor, the average
+ * key and value sizes, a segment count for the writer thread count, and the chunk size that
+ * wastes the least space. The estimates approximate Chronicle's layout rather than replicate it,
+ * so check the result by building the map (see {@link MapSizingTool}).
+ */
+public class MapSizingAdvisor<K, V> {
+    static final int CHECKSUM_BYTES = 4; // Persisted maps checksum every entry by default
+    static final int HASH_LOOKUP_BYTES_PER_ENTRY = 12; // 8-byte slots kept at most ~2/3 full
+    static final int MIN_CHUNK_SIZE = 8;
+    static final int MAX_MEAN_CHUNKS_PER_ENTRY = 4; // More chunks per entry means slower allocation
+    static final int SEGMENTS_PER_THREAD = 4; // Keeps two writers on the same segment lock unlikely
+    static final long MAX_ENTRIES_PER_SEGMENT = 1 << 15; // Keeps a tier's hash lookup small enough to cache
+
+    private final SerializedSize<? super K> keySize;
+    private final SerializedSize<? super V> valueSize;
+    private int[] keySizes = new int[1024];
+    private int[] valueSizes = new int[1024];
+    private int samples;
+    private K sampleKey;
+    private V sampleValue;
+
+    public MapSizingAdvisor(SerializedSize<? super K> keySize, SerializedSize<? super V> valueSize) {
+        this.keySize = keySize;
+        this.valueSize = valueSize;
+    }
+
+    public MapSizingAdvisor<K, V> sample(K key, V value) {
+        if (samples == keySizes.length) {
+            keySizes = Arrays.copyOf(keySizes, samples * 2);
+            valueSizes = Arrays.copyOf(valueSizes, samples * 2);
+        }
+        keySizes[samples] = keySize.of(key);
+        valueSizes[samples] = valueSize.of(value);
+        samples++;
+        if (sampleKey == null) {
+            sampleKey = key;
+            sampleValue = value;
+        }
+        return this;
+    }
+
+    public int sampleCount() {
+        return samples;
+    }
+
+    /**
+     * @param expectedEntries  number of entries the map will actually hold
+     * @param targetLoadFactor fraction of the configured {@code entries} that will be used, in (0, 1]
+     * @param threads          number of threads writing to the map concurrently
+     */
+    public Recommendation<K, V> recommend(long expectedEntries, double targetLoadFactor, int threads) {
+        if (samples == 0) {
+            throw new IllegalStateException("No samples");
+        }
+        if (targetLoadFactor <= 0 || targetLoadFactor > 1) {
+            throw new IllegalArgumentException("targetLoadFactor must be in (0, 1]: " + targetLoadFactor);
+        }
+        if (expectedEntries <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("expectedEntries and threads must be positive");
+        }
+
+        int[] sortedKeys = Arrays.copyOf(keySizes, samples);
+        int[] sortedValues = Arrays.copyOf(valueSizes, samples);
+        Arrays.sort(sortedKeys);
+        Arrays.sort(sortedValues);
+
+        int[] entrySizes = new int[samples];
+        int maxEntrySize = 0;
+        for (int i = 0; i < samples; i++) {
+            entrySizes[i] = entrySize(keySizes[i], valueSizes[i]);
+            maxEntrySize = Math.max(maxEntrySize, entrySizes[i]);
+        }
+
+        long entries = (long) Math.ceil(expectedEntries / targetLoadFactor);
+        long segmentsForSize = (entries + MAX_ENTRIES_PER_SEGMENT - 1) / MAX_ENTRIES_PER_SEGMENT;
+        int segments = nextPowerOfTwo(Math.max((long) threads * SEGMENTS_PER_THREAD, segmentsForSize));
+
+        boolean constantEntries = keySize.isConstant() && valueSize.isConstant();
+        int chunkSize = constantEntries ? maxEntrySize : bestChunkSize(entrySizes, maxEntrySize);
+        long allocated = 0;
+        long chunks = 0;
+        for (int entrySize : entrySizes) {
+            int n = (entrySize + chunkSize - 1) / chunkSize;
+            chunks += n;
+            allocated += (long) n * chunkSize;
+        }
+        double allocatedPerEntry = allocated / (double) samples;
+
+        return new Recommendation<>(this, sortedKeys, sortedValues, entries, segments, chunkSize,
+                chunks / (double) samples,
+                (long) (entries * (allocatedPerEntry + HASH_LOOKUP_BYTES_PER_ENTRY)));
+    }
+
+    private int entrySize(int keyBytes, int valueBytes) {
+        int keyPrefix = keySize.isConstant() ? 0 : stopBitLength(keyBytes);
+        int valuePrefix = valueSize.isConstant() ? 0 : stopBitLength(valueBytes);
+        return keyPrefix + keyBytes + valuePrefix + valueBytes + CHECKSUM_BYTES;
+    }
+
+    /**
+     * Smallest expected allocation per entry, counting rounding up to whole chunks and one
+     * free-list bit per chunk. Every chunk size up to the largest entry is tried against a
+     * histogram of the sampled entry sizes; ties go to the larger chunk.
+     */
+    private static int bestChunkSize(int[] entrySizes, int maxEntrySize) {
+        int[] sorted = entrySizes.clone();
+        Arrays.sort(sorted);
+        int[] sizes = new int[sorted.length];
+        int[] counts = new int[sorted.length];
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sizes[distinct - 1] != sorted[i]) {
+                sizes[distinct++] = sorted[i];
+            }
+            counts[distinct - 1]++;
+        }
+
+        int best = maxEntrySize;
+        double bestBytes = Double.MAX_VALUE;
+        for (int chunkSize = MIN_CHUNK_SIZE; chunkSize <= maxEntrySize; chunkSize++) {
+            long allocated = 0;
+            long chunks = 0;
+            for (int i = 0; i < distinct; i++) {
+                long n = (long) (sizes[i] + chunkSize - 1) / chunkSize * counts[i];
+                chunks += n;
+                allocated += n * chunkSize;
+            }
+            double meanChunks = chunks / (double) entrySizes.length;
+            if (meanChunks > MAX_MEAN_CHUNKS_PER_ENTRY) {
+                continue;
+            }
+            double bytes = allocated / (double) entrySizes.length + meanChunks / 8.0;
+            if (bytes <= bestBytes) {
+                bestBytes = bytes;
+                best = chunkSize;
+            }
+        }
+        return best;
+    }
+
+    // Chronicle writes size prefixes as stop-bit encoded lengths, 7 bits per byte
+    static int stopBitLength(long value) {
+        int bytes = 1;
+        while ((value >>>= 7) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static int nextPowerOfTwo(long value) {
+        return value <= 1 ? 1 : (int) Long.highestOneBit(value - 1) << 1;
+    }
+
+    private static double mean(int[] values) {
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum / (double) values.length;
+    }
+
+    private static int percentile(int[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static final class Recommendation<K, V> {
+        private final boolean constantKeySize;
+        private final boolean constantValueSize;
+        private final K sampleKey;
+        private final V sampleValue;
+        private final int samples;
+        private final double averageKeySize;
+        private final int p99KeySize;
+        private final int maxKeySize;
+        private final double averageValueSize;
+        private final int p99ValueSize;
+        private final int maxValueSize;
+        private final long entries;
+        private final int segments;
+        private final int chunkSize;
+        private final double chunksPerEntry;
+        private final long estimatedBytes;
+
+        private Recommendation(MapSizingAdvisor<K, V> advisor, int[] sortedKeySizes, int[] sortedValueSizes,
+                               long entries, int segments, int chunkSize, double chunksPerEntry, long estimatedBytes) {
+            this.constantKeySize = advisor.keySize.isConstant();
+            this.constantValueSize = advisor.valueSize.isConstant();
+            this.sampleKey = advisor.sampleKey;
+            this.sampleValue = advisor.sampleValue;
+            this.samples = advisor.samples;
+            this.averageKeySize = mean(sortedKeySizes);
+            this.p99KeySize = percentile(sortedKeySizes, 99);
+            this.maxKeySize = sortedKeySizes[sortedKeySizes.length - 1];
+            this.averageValueSize = mean(sortedValueSizes);
+            this.p99ValueSize = percentile(sortedValueSizes, 99);
+            this.maxValueSize = sortedValueSizes[sortedValueSizes.length - 1];
+            this.entries = entries;
+            this.segments = segments;
+            this.chunkSize = chunkSize;
+            this.chunksPerEntry = chunksPerEntry;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        /**
+         * Applies the sizing to {@code builder}. Key and value marshallers must already be set.
+         */
+        public ChronicleMapBuilder<K, V> applyTo(ChronicleMapBuilder<K, V> builder) {
+            builder.entries(entries)
+                    .actualSegments(segments)
+                    .actualChunkSize(chunkSize);
+            if (constantKeySize) {
+                builder.constantKeySizeBySample(sampleKey);
+            } else {
+                builder.averageKeySize(averageKeySize);
+            }
+            if (constantValueSize) {
+                builder.constantValueSizeBySample(sampleValue);
+            } else {
+                builder.averageValueSize(averageValueSize);
+            }
+            return builder;
+        }
+
+        public long entries() {
+            return entries;
+        }
+
+        public double averageKeySize() {
+            return averageKeySize;
+        }
+
+        public double averageValueSize() {
+            return averageValueSize;
+        }
+
+        public int segments() {
+            return segments;
+        }
+
+        public int chunkSize() {
+            return chunkSize;
+        }
+
+        public long estimatedBytes() {
+            return estimatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Recommendation[samples=%,d entries=%,d key=%s value=%s segments=%d chunkSize=%d " +
+                            "chunksPerEntry=%.2f estimatedSize=%,d MB]",
+                    samples, entries, sizeOf(constantKeySize, averageKeySize, p99KeySize, maxKeySize),
+                    sizeOf(constantValueSize, averageValueSize, p99ValueSize, maxValueSize),
+                    segments, chunkSize, chunksPerEntry, estimatedBytes / (1024 * 1024));
+        }
+
+        private static String sizeOf(boolean constant, double average, int p99, int max) {
+            return constant ? String.format("%d B constant", max)
+                    : String.format("%.1f B avg/%d p99/%d max", average, p99, max);
+        }
+    }
+}
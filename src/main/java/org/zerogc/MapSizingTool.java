@@ -0,0 +1,144 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+import org.workload.LatencyHistogram;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
+import static org.zerogc.ChronicleMapPerformanceTest.SYMBOL_LENGTH;
+import static org.zerogc.ChronicleMapPerformanceTest.createAverageSymbol;
+
+/**
+ * Sizes the demo maps from sampled real keys with {@link MapSizingAdvisor}, then builds each map
+ * both with the hand-picked settings the tests use and with the recommendation, and compares
+ * file size, free space, load time and lookup latency.
+ */
+public class MapSizingTool {
+    private static final int NUM_SYMBOLS = 5_000_000;
+    private static final int NUM_STRING_ENTRIES = 1_000_000; // As in ChronicleMapConcurrentTest
+    private static final int SAMPLE_SIZE = 100_000;
+    private static final int NUM_LOOKUPS = 1_000_000;
+    private static final double TARGET_LOAD_FACTOR = 0.8;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final String FILE_PATH = "sizing_map.dat";
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("Target load factor %.2f, %d writer threads%n", TARGET_LOAD_FACTOR, THREADS);
+
+        OptionSymbol[] symbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        double[] prices = new double[NUM_SYMBOLS];
+        RandomGenerator random = WorkloadGenerator.builder(NUM_SYMBOLS).seed(SEED).build().stream(0).random();
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100.0 + random.nextDouble() * 900.0;
+        }
+        IntFunction<Double> priceOf = i -> prices[i];
+
+        // 1. Option symbols with default Java serialization, as in ChronicleMapPerformanceTest
+        System.out.println("\n=== OptionSymbol -> Double, Java-serialized keys ===");
+        MapSizingAdvisor.Recommendation<OptionSymbol, Double> serialized = sample(
+                new MapSizingAdvisor<>(SerializedSize.<OptionSymbol>javaSerialization(), SerializedSize.constant(8)),
+                symbols, priceOf, NUM_SYMBOLS);
+        System.out.printf("Hand-picked averageKey(createAverageSymbol(%d)) is %d bytes%n", SYMBOL_LENGTH,
+                SerializedSize.<OptionSymbol>javaSerialization().of(createAverageSymbol(SYMBOL_LENGTH)));
+        verify("hand-picked", ChronicleMap.of(OptionSymbol.class, Double.class)
+                        .entries(NUM_SYMBOLS)
+                        .averageKey(createAverageSymbol(SYMBOL_LENGTH)),
+                symbols, priceOf);
+        verify("recommended", serialized.applyTo(ChronicleMap.of(OptionSymbol.class, Double.class)),
+                symbols, priceOf);
+
+        // 2. Option symbols with the packed marshaller, as in SymbolMapScanBenchmark
+        System.out.println("\n=== OptionSymbol -> Double, packed keys ===");
+        MapSizingAdvisor.Recommendation<OptionSymbol, Double> packed = sample(
+                new MapSizingAdvisor<>(SerializedSize.constant(PackedOptionKey.SIZE), SerializedSize.constant(8)),
+                symbols, priceOf, NUM_SYMBOLS);
+        verify("hand-picked", ChronicleMap.of(OptionSymbol.class, Double.class)
+                        .entries(NUM_SYMBOLS)
+                        .keyMarshaller(OptionSymbolMarshaller.INSTANCE)
+                        .constantKeySizeBySample(createAverageSymbol(SYMBOL_LENGTH)),
+                symbols, priceOf);
+        verify("recommended", packed.applyTo(ChronicleMap.of(OptionSymbol.class, Double.class)
+                        .keyMarshaller(OptionSymbolMarshaller.INSTANCE)),
+                symbols, priceOf);
+        symbols = null;
+
+        // 3. String keys and values, as in ChronicleMapConcurrentTest
+        System.out.println("\n=== String -> String ===");
+        String[] keys = new String[NUM_STRING_ENTRIES];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "SYM" + i;
+        }
+        IntFunction<String> valueOf = i -> "VALUE" + i;
+        MapSizingAdvisor.Recommendation<String, String> strings = sample(
+                new MapSizingAdvisor<>(SerializedSize.<String>utf8(), SerializedSize.<String>utf8()),
+                keys, valueOf, NUM_STRING_ENTRIES);
+        verify("hand-picked", ChronicleMap.of(String.class, String.class)
+                        .entries(NUM_STRING_ENTRIES)
+                        .averageKey("SYM000001")
+                        .averageValue("VALUE000001"),
+                keys, valueOf);
+        verify("recommended", strings.applyTo(ChronicleMap.of(String.class, String.class)), keys, valueOf);
+
+        System.out.println("\nSizing completed.");
+    }
+
+    private static <K, V> MapSizingAdvisor.Recommendation<K, V> sample(MapSizingAdvisor<K, V> advisor,
+                                                                       K[] keys, IntFunction<V> values,
+                                                                       long expectedEntries) {
+        // Uniform sample so rarely traded keys count as much as hot ones
+        WorkloadStream stream = WorkloadGenerator.builder(keys.length).seed(SEED).build().stream(2);
+        long start = System.nanoTime();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            int index = stream.nextKey();
+            advisor.sample(keys[index], values.apply(index));
+        }
+        MapSizingAdvisor.Recommendation<K, V> recommendation =
+                advisor.recommend(expectedEntries, TARGET_LOAD_FACTOR, THREADS);
+        System.out.printf("Measured %,d samples in %.1f ms%n", advisor.sampleCount(),
+                (System.nanoTime() - start) / 1_000_000.0);
+        System.out.println(recommendation);
+        return recommendation;
+    }
+
+    private static <K, V> void verify(String label, ChronicleMapBuilder<K, V> builder,
+                                      K[] keys, IntFunction<V> values) throws IOException {
+        File file = new File(FILE_PATH);
+        if (file.exists()) file.delete();
+
+        long start = System.nanoTime();
+        ChronicleMap<K, V> map = builder.name("sizing-map").putReturnsNull(true).createPersistedTo(file);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values.apply(i));
+        }
+        long loadTime = System.nanoTime() - start;
+
+        // Lookups follow the zipfian access pattern of the demos
+        WorkloadStream stream = WorkloadGenerator.builder(keys.length).seed(SEED).zipfian(0.99).build().stream(1);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long misses = 0;
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            K key = stream.nextKey(keys);
+            long t0 = System.nanoTime();
+            V value = map.get(key);
+            histogram.record(System.nanoTime() - t0);
+            if (value == null) misses++;
+        }
+
+        System.out.printf("%-12s load %6.2f s | file %,8.1f MB | off-heap used %,8.1f MB | free %3d%% | " +
+                        "auto-resizes left %d | misses %d%n",
+                label, loadTime / 1_000_000_000.0, file.length() / (1024.0 * 1024.0),
+                map.offHeapMemoryUsed() / (1024.0 * 1024.0), map.percentageFreeSpace(),
+                map.remainingAutoResizes(), misses);
+        System.out.println("             lookup " + histogram.summary());
+
+        map.close();
+        file.delete();
+    }
+}
@@ -0,0 +1,204 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMap;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded on-heap cache in front of a {@link ChronicleMap}, so hot reads skip off-heap
+ * deserialization of the key and value.
+ * <p>
+ * Layout is set-associative: a key hashes to one set of {@link #WAYS} slots. Slot 0 of each
+ * set is a small admission window that takes every newly loaded entry; the entry it displaces
+ * only moves into the main slots if the {@link FrequencySketch} says it is more popular than
+ * the least popular main entry (W-TinyLFU admission). Lookups never lock or allocate.
+ * <p>
+ * Staleness is prevented with versions rather than explicit removal: every key maps to a
+ * version stripe that {@link #put} bumps after writing the backing map, and a cached entry is
+ * only served while its recorded version is still current. All writes must therefore go
+ * through this cache; writes made directly to the backing map are not seen.
+ */
+public class NearCache<K, V> {
+    static final int WAYS = 8;
+    private static final int VERSION_STRIPES = 1 << 14;
+    private static final int VERSION_PADDING = 3; // one stripe per 64-byte cache line
+
+    private final ChronicleMap<K, V> map;
+    private final AtomicReferenceArray<Entry<K, V>> slots;
+    private final int setMask;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES << VERSION_PADDING);
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public NearCache(ChronicleMap<K, V> map, int capacity) {
+        if (capacity < WAYS) {
+            throw new IllegalArgumentException("capacity must be at least " + WAYS + ": " + capacity);
+        }
+        int sets = Integer.highestOneBit(capacity / WAYS);
+        this.map = map;
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+        this.setMask = sets - 1;
+        this.sketch = new FrequencySketch(sets * WAYS);
+    }
+
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        sketch.increment(hash);
+        int versionIndex = versionIndex(hash);
+        long version = versions.get(versionIndex);
+
+        int base = setBase(hash);
+        for (int way = 0; way < WAYS; way++) {
+            Entry<K, V> entry = slots.get(base + way);
+            if (entry != null && entry.hash == hash && entry.key.equals(key)) {
+                if (entry.version == version) {
+                    hits.increment();
+                    return entry.value;
+                }
+                staleHits.increment();
+                break;
+            }
+        }
+
+        misses.increment();
+        V value = map.get(key);
+        // Only cache what was read under an unchanged version; a racing put would have bumped it
+        if (value != null && versions.get(versionIndex) == version) {
+            admit(base, new Entry<>(hash, key, value, version));
+        }
+        return value;
+    }
+
+    /**
+     * Writes through to the backing map, then invalidates any cached copy of the key.
+     */
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        map.put(key, value);
+        versions.incrementAndGet(versionIndex(hash));
+    }
+
+    /**
+     * Atomically updates the backing map, then invalidates any cached copy of the key.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        int hash = spread(key.hashCode());
+        V value = map.compute(key, remapping);
+        versions.incrementAndGet(versionIndex(hash));
+        return value;
+    }
+
+    public void invalidate(K key) {
+        versions.incrementAndGet(versionIndex(spread(key.hashCode())));
+    }
+
+    public ChronicleMap<K, V> getMap() {
+        return map;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        staleHits.reset();
+        admissions.reset();
+        rejections.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NearCache[capacity=%,d hits=%,d misses=%,d hitRate=%.2f%% stale=%,d admitted=%,d rejected=%,d]",
+                capacity(), hits.sum(), misses.sum(), hitRate() * 100.0,
+                staleHits.sum(), admissions.sum(), rejections.sum());
+    }
+
+    private void admit(int base, Entry<K, V> candidate) {
+        // Refresh in place if the key is already cached (typically a stale copy)
+        for (int way = 0; way < WAYS; way++) {
+            Entry<K, V> entry = slots.get(base + way);
+            if (entry != null && entry.hash == candidate.hash && entry.key.equals(candidate.key)) {
+                slots.set(base + way, candidate);
+                return;
+            }
+        }
+
+        // New entries always land in the window; the one they push out competes for a main slot
+        Entry<K, V> displaced = slots.getAndSet(base, candidate);
+        if (displaced == null) {
+            return;
+        }
+        int victimWay = -1;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int way = 1; way < WAYS; way++) {
+            Entry<K, V> entry = slots.get(base + way);
+            if (entry == null) {
+                victimWay = way;
+                victimFrequency = -1;
+                break;
+            }
+            int frequency = sketch.frequency(entry.hash);
+            if (frequency < victimFrequency) {
+                victimWay = way;
+                victimFrequency = frequency;
+            }
+        }
+        if (sketch.frequency(displaced.hash) > victimFrequency) {
+            slots.set(base + victimWay, displaced);
+            admissions.increment();
+        } else {
+            rejections.increment();
+        }
+    }
+
+    private int setBase(int hash) {
+        return ((hash >>> 7) & setMask) * WAYS;
+    }
+
+    private static int versionIndex(int hash) {
+        return (hash & (VERSION_STRIPES - 1)) << VERSION_PADDING;
+    }
+
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry<K, V> {
+        final int hash;
+        final K key;
+        final V value;
+        final long version;
+
+        Entry(int hash, K key, V value, long version) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.LatencyHistogram;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.random.RandomGenerator;
+
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
+import static org.zerogc.ChronicleMapPerformanceTest.SYMBOL_LENGTH;
+import static org.zerogc.ChronicleMapPerformanceTest.createAverageSymbol;
+
+/**
+ * Compares the bare symbol map with a {@link NearCache} in front of it under the pricing
+ * service's access pattern: Zipfian keys and roughly 50 reads per write.
+ */
+public class NearCacheBenchmark {
+    private static final int NUM_SYMBOLS = 1_000_000;
+    private static final int CACHE_CAPACITY = 8_192;
+    private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int OPERATIONS_PER_THREAD = 2_000_000;
+    private static final int WARMUP_OPERATIONS_PER_THREAD = 500_000;
+
+    interface PriceStore {
+        Double get(OptionSymbol symbol);
+
+        void put(OptionSymbol symbol, Double price);
+
+        Double compute(OptionSymbol symbol, BiFunction<OptionSymbol, Double, Double> remapping);
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Creating and loading ChronicleMap with " + NUM_SYMBOLS + " option symbols...");
+        ChronicleMap<OptionSymbol, Double> symbolMap = ChronicleMap
+                .of(OptionSymbol.class, Double.class)
+                .name("near-cache-benchmark-map")
+                .entries(NUM_SYMBOLS)
+                .averageKey(createAverageSymbol(SYMBOL_LENGTH))
+                .putReturnsNull(true)
+                .create();
+
+        OptionSymbol[] symbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        for (int i = 0; i < symbols.length; i++) {
+            symbolMap.put(symbols[i], 100.0 + i % 900);
+        }
+
+        WorkloadGenerator workload = WorkloadGenerator.builder(NUM_SYMBOLS)
+                .seed(SEED)
+                .zipfian(0.99)
+                .mix(50, 1, 0)
+                .build();
+        System.out.println("Workload: " + workload + " | threads: " + NUM_THREADS);
+
+        NearCache<OptionSymbol, Double> nearCache = new NearCache<>(symbolMap, CACHE_CAPACITY);
+        PriceStore bare = new PriceStore() {
+            public Double get(OptionSymbol symbol) { return symbolMap.get(symbol); }
+            public void put(OptionSymbol symbol, Double price) { symbolMap.put(symbol, price); }
+            public Double compute(OptionSymbol symbol, BiFunction<OptionSymbol, Double, Double> remapping) {
+                return symbolMap.compute(symbol, remapping);
+            }
+        };
+        PriceStore cached = new PriceStore() {
+            public Double get(OptionSymbol symbol) { return nearCache.get(symbol); }
+            public void put(OptionSymbol symbol, Double price) { nearCache.put(symbol, price); }
+            public Double compute(OptionSymbol symbol, BiFunction<OptionSymbol, Double, Double> remapping) {
+                return nearCache.compute(symbol, remapping);
+            }
+        };
+
+        // Warmups use their own streams so they do not preload the keys the measured runs ask for
+        run("Bare ChronicleMap (warmup)", bare, symbols, workload, 0, WARMUP_OPERATIONS_PER_THREAD);
+        run("Bare ChronicleMap", bare, symbols, workload, NUM_THREADS, OPERATIONS_PER_THREAD);
+
+        run("NearCache (warmup)", cached, symbols, workload, 0, WARMUP_OPERATIONS_PER_THREAD);
+        nearCache.resetStats();
+        run("NearCache", cached, symbols, workload, NUM_THREADS, OPERATIONS_PER_THREAD);
+        System.out.println(nearCache);
+
+        symbolMap.close();
+        System.out.println("\nBenchmark completed and map closed.");
+    }
+
+    private static void run(String label, PriceStore store, OptionSymbol[] symbols,
+                            WorkloadGenerator workload, int firstStream, int operationsPerThread) throws Exception {
+        LatencyHistogram total = new LatencyHistogram();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS)) {
+            Future<?>[] futures = new Future<?>[NUM_THREADS];
+            LatencyHistogram[] histograms = new LatencyHistogram[NUM_THREADS];
+            for (int t = 0; t < NUM_THREADS; t++) {
+                LatencyHistogram histogram = histograms[t] = new LatencyHistogram();
+                WorkloadStream stream = workload.stream(firstStream + t);
+                futures[t] = executor.submit(() -> runWorker(store, symbols, stream, histogram, operationsPerThread));
+            }
+            for (int t = 0; t < NUM_THREADS; t++) {
+                futures[t].get();
+                total.merge(histograms[t]);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%n%s%n", label);
+        System.out.printf("Throughput: %.2f ops/sec%n", total.getCount() * 1_000_000_000.0 / elapsed);
+        System.out.println("Latency " + total.summary());
+    }
+
+    private static void runWorker(PriceStore store, OptionSymbol[] symbols, WorkloadStream stream,
+                                  LatencyHistogram histogram, int operations) {
+        RandomGenerator random = stream.random();
+        for (int i = 0; i < operations; i++) {
+            OptionSymbol symbol = stream.nextKey(symbols);
+            long opStart = System.nanoTime();
+            switch (stream.nextOperation()) {
+                case READ -> store.get(symbol);
+                case WRITE -> store.put(symbol, 100.0 + random.nextDouble() * 900.0);
+                case COMPUTE -> store.compute(symbol, (k, price) -> price == null ? 100.0 : price + 1.0);
+            }
+            histogram.record(System.nanoTime() - opStart);
+        }
+    }
+}
@@ -77,9 +77,10 @@ public class OptionSymbol implements Serializable {
         char typeChar = symbolStr.charAt(dateStart + 6);
         OptionType type = typeChar == 'C' ? OptionType.CALL : OptionType.PUT;
 
-        // Parse strike price
+        // Parse strike price; BigDecimal.valueOf(double) gives the same scale the generators use,
+        // so a parsed symbol equals (and serializes like) the one it was formatted from
         String strikeStr = symbolStr.substring(dateStart + 7);
-        BigDecimal strike = new BigDecimal(Integer.parseInt(strikeStr)).divide(BigDecimal.valueOf(1000));
+        BigDecimal strike = BigDecimal.valueOf(Integer.parseInt(strikeStr) / 1000.0);
 
         return new OptionSymbol(ticker, type, expDate, strike);
     }
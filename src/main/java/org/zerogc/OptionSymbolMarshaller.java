@@ -0,0 +1,55 @@
+package org.zerogc;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.hash.serialization.BytesReader;
+import net.openhft.chronicle.hash.serialization.BytesWriter;
+import net.openhft.chronicle.hash.serialization.impl.EnumMarshallable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fixed-size binary key marshaller for {@link OptionSymbol}, in the layout read by
+ * {@link PackedOptionKey}. Compared with the default Java serialization it makes every key
+ * {@value PackedOptionKey#SIZE} bytes and lets scans filter on key fields without deserializing.
+ * <p>
+ * Use with {@code .keyMarshaller(OptionSymbolMarshaller.INSTANCE)} and
+ * {@code .constantKeySizeBySample(...)}. Strikes are stored in thousandths, as in the OSI
+ * symbol, and read back with {@code BigDecimal.valueOf(double)} like the generators create them.
+ */
+public final class OptionSymbolMarshaller
+        implements BytesReader<OptionSymbol>, BytesWriter<OptionSymbol>, EnumMarshallable<OptionSymbolMarshaller> {
+    public static final OptionSymbolMarshaller INSTANCE = new OptionSymbolMarshaller();
+
+    private OptionSymbolMarshaller() {
+    }
+
+    @Override
+    public void write(Bytes<?> out, OptionSymbol symbol) {
+        out.writeLong(PackedOptionKey.encodeUnderlying(symbol.getUnderlyingSymbol()));
+        out.writeByte((byte) symbol.getOptionType().ordinal());
+        out.writeInt((int) symbol.getExpirationDate().toEpochDay());
+        out.writeLong(strikeMillis(symbol.getStrikePrice()));
+    }
+
+    @Override
+    public OptionSymbol read(Bytes<?> in, OptionSymbol using) {
+        if (using == null) {
+            using = new OptionSymbol();
+        }
+        using.setUnderlyingSymbol(PackedOptionKey.decodeUnderlying(in.readLong()));
+        using.setOptionType(OptionSymbol.OptionType.values()[in.readByte()]);
+        using.setExpirationDate(LocalDate.ofEpochDay(in.readInt()));
+        using.setStrikePrice(BigDecimal.valueOf(in.readLong() / 1000.0));
+        return using;
+    }
+
+    @Override
+    public OptionSymbolMarshaller readResolve() {
+        return INSTANCE;
+    }
+
+    public static long strikeMillis(BigDecimal strike) {
+        return strike.multiply(BigDecimal.valueOf(1000)).longValue();
+    }
+}
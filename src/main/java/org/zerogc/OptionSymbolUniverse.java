@@ -0,0 +1,106 @@
+package org.zerogc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Deterministic set of distinct option contracts ordered by how actively they trade.
+ * <p>
+ * Index 0 is the hottest contract: front-month and closest to the money. Pairing this
+ * ordering with a skewed {@link org.workload.WorkloadGenerator} makes the key mix look like
+ * real flow, where near-the-money front-month contracts take most of the lookups.
+ * The same seed and reference date always produce the same array.
+ * <p>
+ * Contracts come from a fixed grid: every ticker and option type, daily expiries out to
+ * {@value #MAX_EXPIRY_DAYS} days and the strikes {@link ChronicleMapPerformanceTest#generateRandomSymbol}
+ * can produce. The whole grid is ranked and the hottest {@code count} contracts are kept, so no
+ * contract appears twice and Zipfian rank k really is the k-th hottest contract.
+ */
+public final class OptionSymbolUniverse {
+    static final int MAX_EXPIRY_DAYS = 1_460; // Four years of daily expiries, enough for the 5M-entry maps
+
+    private static final OptionSymbol.OptionType[] OPTION_TYPES = OptionSymbol.OptionType.values();
+    private static final int CELL_BITS = 24;
+    private static final int TIE_BREAK_BITS = 32 - CELL_BITS;
+
+    private OptionSymbolUniverse() {
+    }
+
+    public static OptionSymbol[] generate(long seed, int count, LocalDate referenceDate) {
+        String[] tickers = ChronicleMapPerformanceTest.TICKERS;
+        BigDecimal[][] strikes = new BigDecimal[tickers.length][];
+        int maxStrikes = 0;
+        long gridSize = 0;
+        for (int t = 0; t < tickers.length; t++) {
+            strikes[t] = strikeGrid(ChronicleMapPerformanceTest.getBaseStockPrice(tickers[t]));
+            maxStrikes = Math.max(maxStrikes, strikes[t].length);
+            gridSize += (long) strikes[t].length * OPTION_TYPES.length * MAX_EXPIRY_DAYS;
+        }
+        if (count > gridSize) {
+            throw new IllegalArgumentException("Only " + gridSize + " distinct contracts in the grid, asked for " + count);
+        }
+        if ((long) tickers.length * OPTION_TYPES.length * MAX_EXPIRY_DAYS * maxStrikes > 1L << CELL_BITS) {
+            throw new IllegalStateException("Contract grid does not fit in " + CELL_BITS + " bits");
+        }
+
+        // Pack (activity score, seeded tie-break, grid cell) into a long so the ranking is a primitive sort
+        SplittableRandom rng = new SplittableRandom(seed);
+        long[] ranked = new long[(int) gridSize];
+        int n = 0;
+        for (int t = 0; t < tickers.length; t++) {
+            double base = ChronicleMapPerformanceTest.getBaseStockPrice(tickers[t]);
+            for (int type = 0; type < OPTION_TYPES.length; type++) {
+                for (int day = 1; day <= MAX_EXPIRY_DAYS; day++) {
+                    for (int s = 0; s < strikes[t].length; s++) {
+                        float score = activityScore(day, base, strikes[t][s].doubleValue());
+                        int cell = ((t * OPTION_TYPES.length + type) * MAX_EXPIRY_DAYS + day - 1) * maxStrikes + s;
+                        ranked[n++] = (long) Float.floatToIntBits(score) << 32
+                                | (long) rng.nextInt(1 << TIE_BREAK_BITS) << CELL_BITS | cell;
+                    }
+                }
+            }
+        }
+        Arrays.sort(ranked);
+
+        OptionSymbol[] byRank = new OptionSymbol[count];
+        for (int rank = 0; rank < count; rank++) {
+            int cell = (int) (ranked[rank] & ((1 << CELL_BITS) - 1));
+            int s = cell % maxStrikes;
+            int day = cell / maxStrikes % MAX_EXPIRY_DAYS + 1;
+            int type = cell / maxStrikes / MAX_EXPIRY_DAYS % OPTION_TYPES.length;
+            int t = cell / maxStrikes / MAX_EXPIRY_DAYS / OPTION_TYPES.length;
+            byRank[rank] = new OptionSymbol(tickers[t], OPTION_TYPES[type], referenceDate.plusDays(day), strikes[t][s]);
+        }
+        return byRank;
+    }
+
+    public static OptionSymbol[] generate(long seed, int count) {
+        return generate(seed, count, LocalDate.now());
+    }
+
+    /**
+     * Every strike within 40% of {@code basePrice} after rounding. Rounding steps are at least
+     * 0.25 wide, so stepping by 0.125 visits each of them.
+     */
+    static BigDecimal[] strikeGrid(int basePrice) {
+        double low = basePrice * 0.6;
+        double high = basePrice * 1.4;
+        TreeSet<Double> values = new TreeSet<>();
+        for (int i = 0; low + i * 0.125 < high; i++) {
+            values.add(ChronicleMapPerformanceTest.roundStrike(low + i * 0.125));
+        }
+        return values.stream().map(BigDecimal::valueOf).toArray(BigDecimal[]::new);
+    }
+
+    /**
+     * Lower is hotter: months to expiry plus one month per 10% of moneyness distance.
+     * Always non-negative, so the float bits sort in the same order as the values.
+     */
+    static float activityScore(long days, double base, double strike) {
+        double moneyness = Math.abs(strike / base - 1.0);
+        return (float) (Math.max(days, 0) / 30.0 + moneyness * 10.0);
+    }
+}
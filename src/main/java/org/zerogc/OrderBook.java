@@ -0,0 +1,334 @@
+package org.zerogc;
+
+import org.zerogc.ExecutionReportBuffer.ExecType;
+
+import java.util.Arrays;
+
+/**
+ * Single-symbol limit order book with price-time priority that never allocates per order.
+ * <p>
+ * Prices are integer cents. The book covers {@code levelCount} price levels spaced
+ * {@code tickSize} cents apart starting at {@code minPrice}, each addressed directly by array
+ * index; orders off the tick grid or outside the band are rejected. Resting orders
+ * live in a fixed-size pool of parallel primitive arrays and are chained into per-level FIFO
+ * queues by index, and order ids are resolved through an open-addressing primitive hash table.
+ * <p>
+ * Not thread-safe: one thread (or one lock holder) drives a book at a time.
+ */
+public class OrderBook {
+
+    public enum Side {
+        BUY,
+        SELL
+    }
+
+    private static final int NONE = -1;
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private final String symbol;
+    private final long minPrice;
+    private final int levelCount;
+    private final long tickSize;
+
+    // Price levels: bids at [0, levelCount), asks at [levelCount, 2 * levelCount)
+    private final int[] levelHead;
+    private final int[] levelTail;
+    private final long[] levelQuantity;
+    private int bestBid = NONE;
+    private int bestAsk = NONE;
+
+    // Order pool
+    private final long[] orderIds;
+    private final long[] orderQuantity;
+    private final int[] orderLevel; // includes the side offset
+    private final int[] next;
+    private final int[] prev;
+    private int freeHead;
+    private int restingOrders;
+
+    // Order id -> pool index
+    private final long[] idKeys;
+    private final int[] idSlots;
+    private final int idMask;
+
+    public OrderBook(String symbol, long minPrice, int levelCount, int maxOrders) {
+        this(symbol, minPrice, levelCount, 1, maxOrders);
+    }
+
+    public OrderBook(String symbol, long minPrice, int levelCount, long tickSize, int maxOrders) {
+        if (minPrice < 0 || levelCount <= 0 || tickSize <= 0 || maxOrders <= 0) {
+            throw new IllegalArgumentException("Invalid book dimensions for " + symbol);
+        }
+        this.symbol = symbol;
+        this.minPrice = minPrice;
+        this.levelCount = levelCount;
+        this.tickSize = tickSize;
+
+        levelHead = new int[2 * levelCount];
+        levelTail = new int[2 * levelCount];
+        levelQuantity = new long[2 * levelCount];
+        Arrays.fill(levelHead, NONE);
+        Arrays.fill(levelTail, NONE);
+
+        orderIds = new long[maxOrders];
+        orderQuantity = new long[maxOrders];
+        orderLevel = new int[maxOrders];
+        next = new int[maxOrders];
+        prev = new int[maxOrders];
+        for (int i = 0; i < maxOrders; i++) {
+            next[i] = i + 1 < maxOrders ? i + 1 : NONE;
+        }
+        freeHead = 0;
+
+        int idCapacity = Integer.highestOneBit(maxOrders * 2 - 1) << 1;
+        idKeys = new long[idCapacity];
+        idSlots = new int[idCapacity];
+        idMask = idCapacity - 1;
+        Arrays.fill(idKeys, EMPTY_KEY);
+    }
+
+    /**
+     * Matches an incoming limit order against the opposite side and rests any remainder.
+     * Reports NEW for a resting remainder, one FILL per maker crossed, CANCELED for a remainder
+     * that could not rest because the pool is full, or REJECTED if the order is invalid.
+     *
+     * @return false if the order was rejected outright, or if its remainder was cancelled for
+     * lack of space (any fills before that stand)
+     */
+    public boolean add(long orderId, Side side, long price, long quantity, ExecutionReportBuffer reports) {
+        int level = levelOf(price);
+        if (quantity <= 0 || level == NONE || orderId == EMPTY_KEY || findSlot(orderId) >= 0) {
+            reports.add(ExecType.REJECTED, orderId, 0, price, quantity, 0);
+            return false;
+        }
+        long remaining = quantity;
+
+        if (side == Side.BUY) {
+            while (remaining > 0 && bestAsk != NONE && bestAsk <= level) {
+                remaining = matchLevel(levelCount + bestAsk, orderId, remaining, reports);
+                if (levelHead[levelCount + bestAsk] == NONE) {
+                    bestAsk = nextAsk(bestAsk + 1);
+                }
+            }
+        } else {
+            while (remaining > 0 && bestBid != NONE && bestBid >= level) {
+                remaining = matchLevel(bestBid, orderId, remaining, reports);
+                if (levelHead[bestBid] == NONE) {
+                    bestBid = nextBid(bestBid - 1);
+                }
+            }
+        }
+
+        if (remaining == 0) {
+            return true;
+        }
+        if (freeHead == NONE) {
+            reports.add(ExecType.CANCELED, orderId, 0, price, remaining, 0);
+            return false;
+        }
+        rest(orderId, side, level, remaining);
+        reports.add(ExecType.NEW, orderId, 0, price, quantity, remaining);
+        return true;
+    }
+
+    /**
+     * @return false if the order is not resting (unknown, already filled or already cancelled)
+     */
+    public boolean cancel(long orderId, ExecutionReportBuffer reports) {
+        int idSlot = findSlot(orderId);
+        if (idSlot < 0) {
+            reports.add(ExecType.REJECTED, orderId, 0, 0, 0, 0);
+            return false;
+        }
+        int order = idSlots[idSlot];
+        int level = orderLevel[order];
+        long quantity = orderQuantity[order];
+        levelQuantity[level] -= quantity;
+        unlink(order, level);
+        removeSlot(idSlot);
+        release(order);
+
+        if (levelHead[level] == NONE) {
+            if (level < levelCount) {
+                if (level == bestBid) bestBid = nextBid(level - 1);
+            } else if (level - levelCount == bestAsk) {
+                bestAsk = nextAsk(level - levelCount + 1);
+            }
+        }
+        reports.add(ExecType.CANCELED, orderId, 0, priceOf(level), quantity, 0);
+        return true;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Best bid in cents, or -1 if there are no bids.
+     */
+    public long bestBid() {
+        return bestBid == NONE ? NONE : priceOf(bestBid);
+    }
+
+    /**
+     * Best ask in cents, or -1 if there are no asks.
+     */
+    public long bestAsk() {
+        return bestAsk == NONE ? NONE : priceOf(bestAsk);
+    }
+
+    public long quantityAt(Side side, long price) {
+        int level = levelOf(price);
+        if (level == NONE) {
+            return 0;
+        }
+        return levelQuantity[side == Side.BUY ? level : levelCount + level];
+    }
+
+    public int restingOrders() {
+        return restingOrders;
+    }
+
+    public long getMinPrice() {
+        return minPrice;
+    }
+
+    public long getMaxPrice() {
+        return priceOf(levelCount - 1);
+    }
+
+    public long getTickSize() {
+        return tickSize;
+    }
+
+    private int levelOf(long price) {
+        long offset = price - minPrice;
+        if (offset < 0 || offset % tickSize != 0 || offset / tickSize >= levelCount) {
+            return NONE;
+        }
+        return (int) (offset / tickSize);
+    }
+
+    // Accepts bid and ask level indexes alike
+    private long priceOf(int level) {
+        return minPrice + (level % levelCount) * tickSize;
+    }
+
+    private long matchLevel(int level, long takerId, long remaining, ExecutionReportBuffer reports) {
+        long price = priceOf(level);
+        int order = levelHead[level];
+        while (order != NONE && remaining > 0) {
+            long fill = Math.min(orderQuantity[order], remaining);
+            orderQuantity[order] -= fill;
+            levelQuantity[level] -= fill;
+            remaining -= fill;
+            reports.add(ExecType.FILL, takerId, orderIds[order], price, fill, remaining);
+
+            int following = next[order];
+            if (orderQuantity[order] == 0) {
+                unlink(order, level);
+                removeSlot(findSlot(orderIds[order]));
+                release(order);
+            }
+            order = following;
+        }
+        return remaining;
+    }
+
+    private void rest(long orderId, Side side, int level, long quantity) {
+        int order = freeHead;
+        freeHead = next[order];
+        restingOrders++;
+
+        int bookLevel = side == Side.BUY ? level : levelCount + level;
+        orderIds[order] = orderId;
+        orderQuantity[order] = quantity;
+        orderLevel[order] = bookLevel;
+        next[order] = NONE;
+        prev[order] = levelTail[bookLevel];
+        if (levelTail[bookLevel] == NONE) {
+            levelHead[bookLevel] = order;
+        } else {
+            next[levelTail[bookLevel]] = order;
+        }
+        levelTail[bookLevel] = order;
+        levelQuantity[bookLevel] += quantity;
+        insertSlot(orderId, order);
+
+        if (side == Side.BUY) {
+            if (bestBid == NONE || level > bestBid) bestBid = level;
+        } else {
+            if (bestAsk == NONE || level < bestAsk) bestAsk = level;
+        }
+    }
+
+    private void unlink(int order, int level) {
+        int before = prev[order];
+        int after = next[order];
+        if (before == NONE) levelHead[level] = after; else next[before] = after;
+        if (after == NONE) levelTail[level] = before; else prev[after] = before;
+    }
+
+    private void release(int order) {
+        next[order] = freeHead;
+        freeHead = order;
+        restingOrders--;
+    }
+
+    private int nextAsk(int from) {
+        for (int level = from; level < levelCount; level++) {
+            if (levelHead[levelCount + level] != NONE) return level;
+        }
+        return NONE;
+    }
+
+    private int nextBid(int from) {
+        for (int level = from; level >= 0; level--) {
+            if (levelHead[level] != NONE) return level;
+        }
+        return NONE;
+    }
+
+    private int findSlot(long orderId) {
+        int slot = hash(orderId);
+        while (idKeys[slot] != EMPTY_KEY) {
+            if (idKeys[slot] == orderId) return slot;
+            slot = (slot + 1) & idMask;
+        }
+        return NONE;
+    }
+
+    private void insertSlot(long orderId, int order) {
+        int slot = hash(orderId);
+        while (idKeys[slot] != EMPTY_KEY) {
+            slot = (slot + 1) & idMask;
+        }
+        idKeys[slot] = orderId;
+        idSlots[slot] = order;
+    }
+
+    // Backward-shift deletion keeps linear probing correct without tombstones
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int probe = slot;
+        while (true) {
+            probe = (probe + 1) & idMask;
+            if (idKeys[probe] == EMPTY_KEY) break;
+            int home = hash(idKeys[probe]);
+            boolean homeOutsideGap = hole <= probe
+                    ? home <= hole || home > probe
+                    : home <= hole && home > probe;
+            if (homeOutsideGap) {
+                idKeys[hole] = idKeys[probe];
+                idSlots[hole] = idSlots[probe];
+                hole = probe;
+            }
+        }
+        idKeys[hole] = EMPTY_KEY;
+    }
+
+    private int hash(long orderId) {
+        long h = orderId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & idMask;
+    }
+}
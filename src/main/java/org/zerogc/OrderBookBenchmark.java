@@ -0,0 +1,116 @@
+package org.zerogc;
+
+import org.workload.LatencyHistogram;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.PriorityQueue;
+import java.util.random.RandomGenerator;
+
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
+
+/**
+ * Single-book throughput and latency of {@link OrderBook}.
+ * <p>
+ * The order flow is pre-generated into primitive arrays so the measured loop only runs the book:
+ * limit orders around a $100 mid (with enough overlap that many cross), most of which are
+ * cancelled after an exponentially distributed lifetime unless filled first. The first pass
+ * measures raw throughput, the second records per-order latency.
+ */
+public class OrderBookBenchmark {
+    private static final int NUM_OPERATIONS = 10_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final long MID_PRICE = 10_000;        // $100.00 in cents
+    private static final int LEVEL_COUNT = 2_000;        // $90.00 - $109.99 at one-cent ticks
+    private static final int MAX_ORDERS = 1 << 20;
+    private static final double CANCEL_PROBABILITY = 0.9; // Share of orders that are eventually cancelled
+    private static final double MEAN_LIFETIME = 1_000;    // Operations between an order and its cancel
+
+    public static void main(String[] args) {
+        System.out.println("Generating " + NUM_OPERATIONS + " order book operations...");
+        boolean[] isCancel = new boolean[NUM_OPERATIONS];
+        boolean[] isBuy = new boolean[NUM_OPERATIONS];
+        long[] prices = new long[NUM_OPERATIONS];
+        long[] quantities = new long[NUM_OPERATIONS];
+        long[] targetIds = new long[NUM_OPERATIONS];
+        generate(WorkloadGenerator.builder(1).seed(SEED).build().stream(0),
+                isCancel, isBuy, prices, quantities, targetIds);
+
+        ExecutionReportBuffer reports = new ExecutionReportBuffer();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(newBook(), reports, isCancel, isBuy, prices, quantities, targetIds, null);
+        }
+
+        OrderBook book = newBook();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        long heapBefore = memoryBean.getHeapMemoryUsage().getUsed();
+        long start = System.nanoTime();
+        long fills = run(book, reports, isCancel, isBuy, prices, quantities, targetIds, null);
+        long elapsed = System.nanoTime() - start;
+        long heapAfter = memoryBean.getHeapMemoryUsage().getUsed();
+
+        System.out.printf("%nThroughput: %.2f operations/sec (%d fills, %d resting orders at end)%n",
+                NUM_OPERATIONS * 1_000_000_000.0 / elapsed, fills, book.restingOrders());
+        System.out.printf("Average time per operation: %.1f ns%n", elapsed / (double) NUM_OPERATIONS);
+        System.out.printf("Heap growth during run: %d KB (book preallocated before the timer)%n",
+                Math.max(0, heapAfter - heapBefore) / 1024);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        run(newBook(), reports, isCancel, isBuy, prices, quantities, targetIds, histogram);
+        System.out.println("Latency " + histogram.summary());
+    }
+
+    private static OrderBook newBook() {
+        return new OrderBook("BENCH", MID_PRICE - LEVEL_COUNT / 2, LEVEL_COUNT, MAX_ORDERS);
+    }
+
+    private static long run(OrderBook book, ExecutionReportBuffer reports, boolean[] isCancel, boolean[] isBuy,
+                            long[] prices, long[] quantities, long[] targetIds, LatencyHistogram histogram) {
+        long fills = 0;
+        for (int i = 0; i < NUM_OPERATIONS; i++) {
+            long opStart = histogram == null ? 0 : System.nanoTime();
+            reports.clear();
+            if (isCancel[i]) {
+                book.cancel(targetIds[i], reports);
+            } else {
+                book.add(i + 1, isBuy[i] ? OrderBook.Side.BUY : OrderBook.Side.SELL,
+                        prices[i], quantities[i], reports);
+            }
+            if (histogram != null) {
+                histogram.record(System.nanoTime() - opStart);
+            }
+            for (int r = 0; r < reports.size(); r++) {
+                if (reports.getType(r) == ExecutionReportBuffer.ExecType.FILL) fills++;
+            }
+        }
+        return fills;
+    }
+
+    private static void generate(WorkloadStream stream, boolean[] isCancel, boolean[] isBuy,
+                                 long[] prices, long[] quantities, long[] targetIds) {
+        RandomGenerator random = stream.random();
+        long minPrice = MID_PRICE - LEVEL_COUNT / 2;
+        // Pending cancels packed as (due operation << 32 | order id); generation only, not measured
+        PriorityQueue<Long> pendingCancels = new PriorityQueue<>();
+        for (int i = 0; i < NUM_OPERATIONS; i++) {
+            if (!pendingCancels.isEmpty() && (pendingCancels.peek() >>> 32) <= i) {
+                isCancel[i] = true;
+                targetIds[i] = pendingCancels.poll() & 0xFFFFFFFFL;
+                continue;
+            }
+            long orderId = i + 1; // the benchmark uses op index + 1 as the order id
+            if (random.nextDouble() < CANCEL_PROBABILITY) {
+                long due = i + 1 + (long) (-Math.log(1.0 - random.nextDouble()) * MEAN_LIFETIME);
+                pendingCancels.add(due << 32 | orderId);
+            }
+            boolean buy = random.nextBoolean();
+            // Buys centre just below the mid and sells just above, with tails that cross
+            long price = MID_PRICE + Math.round(random.nextGaussian() * 20) + (buy ? -5 : 5);
+            isBuy[i] = buy;
+            prices[i] = Math.max(minPrice, Math.min(minPrice + LEVEL_COUNT - 1, price));
+            quantities[i] = 1 + random.nextInt(100);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.zerogc;
+
+import net.openhft.chronicle.bytes.RandomDataInput;
+
+/**
+ * Flyweight over an {@link OptionSymbol} key written by {@link OptionSymbolMarshaller}.
+ * <p>
+ * Layout ({@value #SIZE} bytes): underlying as up to 8 ASCII bytes packed into a long,
+ * option type ordinal (1 byte), expiration as epoch day (int), strike in thousandths (long).
+ * {@link #wrap} just repoints the view, so one instance can walk millions of off-heap keys
+ * without creating a String, LocalDate or BigDecimal per entry.
+ */
+public final class PackedOptionKey {
+    public static final int SIZE = 8 + 1 + 4 + 8;
+    static final int UNDERLYING_OFFSET = 0;
+    static final int TYPE_OFFSET = 8;
+    static final int EXPIRY_OFFSET = 9;
+    static final int STRIKE_OFFSET = 13;
+
+    private RandomDataInput bytes;
+    private long offset;
+
+    public PackedOptionKey wrap(RandomDataInput bytes, long offset) {
+        this.bytes = bytes;
+        this.offset = offset;
+        return this;
+    }
+
+    public long underlyingCode() {
+        return bytes.readLong(offset + UNDERLYING_OFFSET);
+    }
+
+    public OptionSymbol.OptionType optionType() {
+        return bytes.readByte(offset + TYPE_OFFSET) == 0 ? OptionSymbol.OptionType.CALL : OptionSymbol.OptionType.PUT;
+    }
+
+    public int expiryEpochDay() {
+        return bytes.readInt(offset + EXPIRY_OFFSET);
+    }
+
+    public long strikeMillis() {
+        return bytes.readLong(offset + STRIKE_OFFSET);
+    }
+
+    /**
+     * Packs a ticker of up to 8 ASCII characters big-endian, so codes sort like the tickers.
+     */
+    public static long encodeUnderlying(String underlying) {
+        if (underlying.length() > 8) {
+            throw new IllegalArgumentException("Underlying longer than 8 characters: " + underlying);
+        }
+        long code = 0;
+        for (int i = 0; i < 8; i++) {
+            code = (code << 8) | (i < underlying.length() ? underlying.charAt(i) & 0xFF : 0);
+        }
+        return code;
+    }
+
+    public static String decodeUnderlying(long code) {
+        StringBuilder sb = new StringBuilder(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            char c = (char) ((code >>> shift) & 0xFF);
+            if (c == 0) break;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,264 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hot-standby copy of a {@link ReplicatedPriceStore}: applies the leader's {@link ChangeLog} to
+ * its own persisted map, received over loopback TCP ({@link #followTcp}) or by tailing the log
+ * file ({@link #followFile}).
+ * <p>
+ * The log's epoch and the last applied sequence are kept in a small sidecar file next to the
+ * map, so a restarted replica resumes from the log tail instead of a full snapshot. They are
+ * written after the entries are applied; replaying a batch after a crash is harmless since
+ * entries are applied in order and ones at or below the applied sequence are skipped. A leader
+ * with a different epoch started a new history: the replica then clears its map and reloads it
+ * from a snapshot. A batch that skips sequences is an error rather than something to step over.
+ * <p>
+ * Lag is measured per batch as the time from the leader taking its first entry to the replica
+ * applying it, and as the number of entries behind the leader's latest known sequence.
+ */
+public class PriceReplica implements Closeable {
+    private static final long ACK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final OptionSymbol.OptionType[] OPTION_TYPES = OptionSymbol.OptionType.values();
+
+    private final ChronicleMap<OptionSymbol, Double> map;
+    private final FileChannel sequenceFile;
+    private final ByteBuffer sequenceBuffer = ByteBuffer.allocate(ChangeLog.EPOCH_SIZE + 8);
+    private final OptionSymbol key = new OptionSymbol();
+    private final Map<Long, String> underlyings = new HashMap<>();
+    private final LatencyHistogram lag = new LatencyHistogram();
+
+    private volatile long epoch;
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long snapshotEntries;
+    private volatile long batches;
+    private volatile SocketChannel channel;
+    private volatile boolean closed;
+
+    public PriceReplica(ChronicleMap<OptionSymbol, Double> map, File sequenceFile) throws IOException {
+        this.map = map;
+        this.sequenceFile = FileChannel.open(sequenceFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (this.sequenceFile.size() >= sequenceBuffer.capacity()) {
+            ChangeLog.readFully(this.sequenceFile.position(0), sequenceBuffer);
+            epoch = sequenceBuffer.getLong(0);
+            appliedSequence = sequenceBuffer.getLong(ChangeLog.EPOCH_SIZE);
+        }
+        leaderSequence = appliedSequence;
+    }
+
+    /**
+     * Connects to the leader and applies the stream until {@link #close} or disconnection.
+     */
+    public void followTcp(InetSocketAddress leader) throws IOException {
+        try (SocketChannel socket = SocketChannel.open(leader)) {
+            channel = socket;
+            socket.socket().setTcpNoDelay(true);
+            ByteBuffer handshake = ByteBuffer.allocate(ChangeLog.EPOCH_SIZE + 8)
+                    .putLong(0, epoch).putLong(ChangeLog.EPOCH_SIZE, appliedSequence);
+            ChangeLog.writeFully(socket, handshake);
+            ByteBuffer leaderEpoch = ByteBuffer.allocate(ChangeLog.EPOCH_SIZE);
+            ChangeLog.readFully(socket, leaderEpoch);
+            adopt(leaderEpoch.getLong(0));
+
+            ByteBuffer ack = ByteBuffer.allocate(8);
+
+            ChangeLog.Reader reader = new ChangeLog.Reader(socket, false);
+            long lastAck = System.nanoTime();
+            while (!closed && reader.next()) {
+                apply(reader);
+                long now = System.nanoTime();
+                if (reader.type() != ChangeLog.SNAPSHOT && now - lastAck >= ACK_INTERVAL_NANOS
+                        || reader.type() == ChangeLog.HEARTBEAT) {
+                    ChangeLog.writeFully(socket, ack.clear().putLong(0, appliedSequence));
+                    lastAck = now;
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) throw e;
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Tails the leader's log file until {@link #close}. A replica older than the log, or one
+     * that followed another log, first loads {@code snapshotFile} written by
+     * {@link ReplicatedPriceStore#writeSnapshot}.
+     */
+    public void followFile(File snapshotFile, File logFile) throws IOException {
+        try (FileChannel log = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            adopt(ChangeLog.readEpoch(log));
+            long baseSequence = ChangeLog.readBaseSequence(log);
+            if (appliedSequence < baseSequence) {
+                try (FileChannel snapshot = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+                    ByteBuffer snapshotEpoch = ByteBuffer.allocate(ChangeLog.EPOCH_SIZE);
+                    ChangeLog.readFully(snapshot, snapshotEpoch);
+                    if (snapshotEpoch.getLong(0) != epoch) {
+                        throw new IOException("Snapshot " + snapshotFile + " belongs to another log than " + logFile);
+                    }
+                    ChangeLog.Reader reader = new ChangeLog.Reader(snapshot, false);
+                    while (reader.next()) {
+                        apply(reader);
+                    }
+                }
+                if (appliedSequence < baseSequence) {
+                    throw new IOException("Snapshot " + snapshotFile + " is incomplete or older than the log");
+                }
+            }
+            long start = ChangeLog.positionAfter(log, appliedSequence, log.size());
+            ChangeLog.Reader reader = new ChangeLog.Reader(log.position(start), true);
+            long lastCheck = System.nanoTime();
+            while (!closed) {
+                if (reader.next()) {
+                    apply(reader);
+                    long now = System.nanoTime();
+                    if (now - lastCheck >= ACK_INTERVAL_NANOS) {
+                        // No heartbeats in the file: estimate the leader from the bytes not yet read
+                        long unread = log.size() - start - reader.consumed();
+                        leaderSequence = appliedSequence + unread / ChangeLog.ENTRY_SIZE;
+                        lastCheck = now;
+                    }
+                } else {
+                    leaderSequence = appliedSequence; // Everything written so far is applied
+                    LockSupport.parkNanos(POLL_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) throw e;
+        }
+    }
+
+    // Sequences of another log's history mean nothing here: start over from an empty map
+    private void adopt(long leaderEpoch) throws IOException {
+        if (leaderEpoch == epoch) {
+            return;
+        }
+        if (epoch != 0 || !map.isEmpty()) {
+            System.out.printf("Replica was following another log, reloading at epoch %016x%n", leaderEpoch);
+            map.clear();
+        }
+        epoch = leaderEpoch;
+        persistSequence(0);
+        leaderSequence = 0;
+    }
+
+    private void apply(ChangeLog.Reader reader) throws IOException {
+        switch (reader.type()) {
+            case ChangeLog.SNAPSHOT -> {
+                if (appliedSequence != 0) {
+                    persistSequence(0); // A half-loaded snapshot must be loaded again after a restart
+                }
+                putEntries(reader, 0);
+                snapshotEntries += reader.count();
+            }
+            case ChangeLog.SNAPSHOT_END -> persistSequence(reader.sequence());
+            case ChangeLog.BATCH -> {
+                if (reader.sequence() > appliedSequence + 1) {
+                    throw new IOException("Change log gap: expected sequence " + (appliedSequence + 1)
+                            + ", got " + reader.sequence());
+                }
+                long last = reader.sequence() + reader.count() - 1;
+                if (last > appliedSequence) {
+                    putEntries(reader, (int) Math.max(0, appliedSequence + 1 - reader.sequence()));
+                    persistSequence(last);
+                    batches++;
+                    synchronized (lag) {
+                        lag.record(Math.max(0, ChangeLog.nowMicros() - reader.timeMicros()) * 1_000);
+                    }
+                }
+            }
+            case ChangeLog.HEARTBEAT -> {
+            }
+            default -> throw new IOException("Unknown change log frame type " + reader.type());
+        }
+        if (reader.type() != ChangeLog.SNAPSHOT) {
+            long known = reader.type() == ChangeLog.HEARTBEAT
+                    ? reader.sequence() : reader.sequence() + reader.count() - 1;
+            leaderSequence = Math.max(leaderSequence, Math.max(known, appliedSequence));
+        }
+    }
+
+    private void putEntries(ChangeLog.Reader reader, int from) {
+        ByteBuffer buffer = reader.buffer();
+        for (int i = from; i < reader.count(); i++) {
+            int offset = reader.entryOffset(i);
+            long underlying = buffer.getLong(offset + PackedOptionKey.UNDERLYING_OFFSET);
+            key.setUnderlyingSymbol(underlyings.computeIfAbsent(underlying, PackedOptionKey::decodeUnderlying));
+            key.setOptionType(OPTION_TYPES[buffer.get(offset + PackedOptionKey.TYPE_OFFSET)]);
+            key.setExpirationDate(LocalDate.ofEpochDay(buffer.getInt(offset + PackedOptionKey.EXPIRY_OFFSET)));
+            key.setStrikePrice(BigDecimal.valueOf(buffer.getLong(offset + PackedOptionKey.STRIKE_OFFSET) / 1000.0));
+            map.put(key, buffer.getDouble(offset + PackedOptionKey.SIZE));
+        }
+    }
+
+    private void persistSequence(long sequence) throws IOException {
+        sequenceBuffer.clear().putLong(0, epoch).putLong(ChangeLog.EPOCH_SIZE, sequence);
+        while (sequenceBuffer.hasRemaining()) {
+            sequenceFile.write(sequenceBuffer, sequenceBuffer.position());
+        }
+        appliedSequence = sequence;
+    }
+
+    public Double get(OptionSymbol symbol) {
+        return map.get(symbol);
+    }
+
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    public long leaderSequence() {
+        return leaderSequence;
+    }
+
+    public long entriesBehind() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * Lag distribution since the last call, then resets it.
+     */
+    public String drainLagSummary() {
+        synchronized (lag) {
+            String summary = lag.getCount() == 0 ? "no batches" : lag.summary();
+            lag.reset();
+            return summary;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PriceReplica[applied=%,d leader=%,d behind=%,d snapshotEntries=%,d batches=%,d]",
+                appliedSequence, leaderSequence, entriesBehind(), snapshotEntries, batches);
+    }
+
+    /**
+     * Stops following. The map itself is left open for the caller.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        SocketChannel socket = channel;
+        if (socket != null) socket.close();
+        sequenceFile.close();
+    }
+}
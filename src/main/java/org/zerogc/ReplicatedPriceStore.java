@@ -0,0 +1,415 @@
+package org.zerogc;
+
+import net.openhft.chronicle.hash.Data;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.MapSegmentContext;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Leader side of price map replication: every {@link #put} updates the map and appends the
+ * entry to a sequence-numbered {@link ChangeLog} file, so a hot standby ({@link PriceReplica})
+ * can follow the map instead of rebuilding it.
+ * <p>
+ * Entries are batched into one frame until {@code maxBatchEntries} are pending or the first
+ * pending entry is {@code lingerMicros} old. Followers either tail the log file directly or
+ * connect over loopback TCP ({@link #serve}), where the log is streamed with
+ * {@code transferTo}. A follower that is new, older than the log or from another log's epoch
+ * first receives a snapshot of the map and then the log from the sequence the snapshot started at. The snapshot is taken
+ * segment by segment while writes continue; replaying the log tail over it converges because
+ * every entry carries the full price and the log is applied in order.
+ * <p>
+ * Writes are serialized so that log order matches map order. Entries still batched when the
+ * leader dies are lost to followers. The map must use {@link OptionSymbolMarshaller} keys.
+ */
+public class ReplicatedPriceStore implements Closeable {
+    private static final long HEARTBEAT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int SNAPSHOT_FRAME_ENTRIES = 4096;
+
+    private final ChronicleMap<OptionSymbol, Double> map;
+    private final FileChannel log;
+    private final long epoch;
+    private final long baseSequence;
+    private final int maxBatchEntries;
+    private final long lingerNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final ByteBuffer batch;
+    private final CRC32 crc = new CRC32();
+    private int batchStart;
+    private int batchCount;
+    private long batchStartNanos;
+    private long sequence;
+    private long batches;
+    private volatile long publishedSequence;
+    private volatile long publishedPosition;
+
+    private final List<Follower> followers = new CopyOnWriteArrayList<>();
+    private final Thread flusher;
+    private volatile ServerSocketChannel server;
+    private volatile boolean closed;
+
+    public ReplicatedPriceStore(ChronicleMap<OptionSymbol, Double> map, File logFile) throws IOException {
+        this(map, logFile, 1024, 200);
+    }
+
+    public ReplicatedPriceStore(ChronicleMap<OptionSymbol, Double> map, File logFile,
+                                int maxBatchEntries, long lingerMicros) throws IOException {
+        if (maxBatchEntries <= 0 || maxBatchEntries > ChangeLog.MAX_FRAME_ENTRIES) {
+            throw new IllegalArgumentException("maxBatchEntries must be in [1, " + ChangeLog.MAX_FRAME_ENTRIES + "]");
+        }
+        this.map = map;
+        this.maxBatchEntries = maxBatchEntries;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.batch = ByteBuffer.allocate(ChangeLog.frameSize(maxBatchEntries));
+        this.log = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (log.size() < ChangeLog.FILE_HEADER_SIZE) {
+            // Entries already in the map are not in the log, so followers must start from a snapshot
+            baseSequence = map.isEmpty() ? 0 : 1;
+            epoch = ChangeLog.newEpoch();
+            ChangeLog.writeFileHeader(log, epoch, baseSequence);
+            log.truncate(ChangeLog.FILE_HEADER_SIZE);
+            sequence = baseSequence;
+            publishedPosition = ChangeLog.FILE_HEADER_SIZE;
+        } else {
+            epoch = ChangeLog.readEpoch(log);
+            baseSequence = ChangeLog.readBaseSequence(log);
+            recover();
+        }
+        publishedSequence = sequence;
+
+        flusher = Thread.ofPlatform().name("change-log-flusher").daemon().start(this::flushLingering);
+    }
+
+    // Continue after the last complete frame of an existing log, dropping a torn tail
+    private void recover() throws IOException {
+        sequence = baseSequence;
+        ChangeLog.Reader reader = new ChangeLog.Reader(log.position(ChangeLog.FILE_HEADER_SIZE), false);
+        try {
+            while (reader.next()) {
+                sequence = reader.sequence() + reader.count() - 1;
+            }
+        } catch (IOException e) {
+            System.out.println("Change log truncated after a damaged frame: " + e.getMessage());
+        }
+        publishedPosition = ChangeLog.FILE_HEADER_SIZE + reader.consumed();
+        log.truncate(publishedPosition);
+    }
+
+    public void put(OptionSymbol symbol, double price) {
+        lock.lock();
+        try {
+            map.put(symbol, price);
+            if (batchCount == 0) {
+                batchStartNanos = System.nanoTime();
+                batchStart = ChangeLog.beginFrame(batch, ChangeLog.BATCH, sequence + 1, ChangeLog.nowMicros());
+            }
+            ChangeLog.putEntry(batch, symbol, price);
+            sequence++;
+            if (++batchCount == maxBatchEntries) {
+                flushLocked();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Double get(OptionSymbol symbol) {
+        return map.get(symbol);
+    }
+
+    /**
+     * Publishes the pending batch now instead of waiting for the linger time.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            flushLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        if (batchCount == 0) {
+            return;
+        }
+        ChangeLog.endFrame(batch, batchStart, batchCount, crc);
+        batch.flip();
+        long position = publishedPosition;
+        try {
+            while (batch.hasRemaining()) {
+                position += log.write(batch, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        batch.clear();
+        batchCount = 0;
+        batches++;
+        publishedPosition = position;
+        publishedSequence = sequence;
+        published.signalAll();
+    }
+
+    private void flushLingering() {
+        while (!closed) {
+            LockSupport.parkNanos(lingerNanos);
+            lock.lock();
+            try {
+                if (batchCount > 0 && System.nanoTime() - batchStartNanos >= lingerNanos) {
+                    flushLocked();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code timeoutNanos} for the log to grow past {@code position}.
+     */
+    private boolean awaitPublished(long position, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeoutNanos;
+            while (publishedPosition == position && !closed && nanos > 0) {
+                nanos = published.awaitNanos(nanos);
+            }
+            return publishedPosition != position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot for followers that tail the log file: the log's epoch, snapshot frames,
+     * then a {@code SNAPSHOT_END} with the sequence to continue the log from. Replaced atomically.
+     */
+    public void writeSnapshot(File snapshotFile) throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChangeLog.writeFully(out, ByteBuffer.allocate(ChangeLog.EPOCH_SIZE).putLong(0, epoch));
+            streamSnapshot(out);
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Streams every map entry to {@code out} and returns the log position to continue from.
+     * Each segment is copied under its lock and written after the lock is released, so a slow
+     * follower never holds up writers.
+     */
+    private long streamSnapshot(WritableByteChannel out) throws IOException {
+        long snapshotSequence;
+        long position;
+        lock.lock();
+        try {
+            flushLocked();
+            snapshotSequence = publishedSequence;
+            position = publishedPosition;
+        } finally {
+            lock.unlock();
+        }
+
+        long timeMicros = ChangeLog.nowMicros();
+        ByteBuffer[] entries = {ByteBuffer.allocate(SNAPSHOT_FRAME_ENTRIES * ChangeLog.ENTRY_SIZE)};
+        ByteBuffer frame = ByteBuffer.allocate(ChangeLog.frameSize(SNAPSHOT_FRAME_ENTRIES));
+        CRC32 frameCrc = new CRC32();
+        PackedOptionKey key = new PackedOptionKey();
+        for (int segment = 0; segment < map.segments(); segment++) {
+            entries[0].clear();
+            try (MapSegmentContext<OptionSymbol, Double, ?> context = map.segmentContext(segment)) {
+                context.forEachSegmentEntry(entry -> {
+                    if (entries[0].remaining() < ChangeLog.ENTRY_SIZE) {
+                        entries[0] = ByteBuffer.allocate(entries[0].capacity() * 2).put(entries[0].flip());
+                    }
+                    Data<OptionSymbol> keyData = entry.key();
+                    key.wrap(keyData.bytes(), keyData.offset());
+                    Data<Double> valueData = entry.value();
+                    ChangeLog.putEntry(entries[0], key, valueData.bytes().readDouble(valueData.offset()));
+                });
+            }
+            entries[0].flip();
+            while (entries[0].hasRemaining()) {
+                int count = Math.min(SNAPSHOT_FRAME_ENTRIES, entries[0].remaining() / ChangeLog.ENTRY_SIZE);
+                frame.clear();
+                int start = ChangeLog.beginFrame(frame, ChangeLog.SNAPSHOT, snapshotSequence, timeMicros);
+                frame.put(entries[0].slice(entries[0].position(), count * ChangeLog.ENTRY_SIZE));
+                entries[0].position(entries[0].position() + count * ChangeLog.ENTRY_SIZE);
+                ChangeLog.endFrame(frame, start, count, frameCrc);
+                ChangeLog.writeFully(out, frame.flip());
+            }
+        }
+        frame.clear();
+        int start = ChangeLog.beginFrame(frame, ChangeLog.SNAPSHOT_END, snapshotSequence, ChangeLog.nowMicros());
+        ChangeLog.endFrame(frame, start, 0, frameCrc);
+        ChangeLog.writeFully(out, frame.flip());
+        return position;
+    }
+
+    /**
+     * Accepts followers on the loopback interface; {@code port} 0 picks a free port.
+     *
+     * @return the bound port
+     */
+    public int serve(int port) throws IOException {
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Thread.ofVirtual().name("change-log-acceptor").start(() -> {
+            while (!closed) {
+                try {
+                    SocketChannel channel = server.accept();
+                    Thread.ofVirtual().name("change-log-sender").start(() -> serveFollower(channel));
+                } catch (IOException e) {
+                    if (!closed) System.out.println("Change log acceptor stopped: " + e.getMessage());
+                    return;
+                }
+            }
+        });
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    // Handshake: the follower sends its epoch and the last sequence it applied, the leader answers
+    // with its epoch, then the follower acknowledges as it applies
+    private void serveFollower(SocketChannel channel) {
+        Follower follower = null;
+        try (channel) {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer request = ByteBuffer.allocate(ChangeLog.EPOCH_SIZE + 8);
+            ChangeLog.readFully(channel, request);
+            long followerEpoch = request.getLong(0);
+            long applied = request.getLong(ChangeLog.EPOCH_SIZE);
+            // A sequence from another log, or past anything this log published, needs a full reload
+            boolean resumable = followerEpoch == epoch && applied >= baseSequence && applied <= publishedSequence;
+            follower = new Follower(channel.getRemoteAddress().toString(), resumable ? applied : 0);
+            followers.add(follower);
+            ChangeLog.writeFully(channel, ByteBuffer.allocate(ChangeLog.EPOCH_SIZE).putLong(0, epoch));
+            Follower acked = follower;
+            Thread.ofVirtual().name("change-log-acks").start(() -> readAcks(channel, acked));
+
+            long position = resumable
+                    ? ChangeLog.positionAfter(log, applied, publishedPosition)
+                    : streamSnapshot(channel);
+            ByteBuffer heartbeat = ByteBuffer.allocate(ChangeLog.frameSize(0));
+            CRC32 heartbeatCrc = new CRC32();
+            while (!closed) {
+                long end = publishedPosition;
+                if (position < end) {
+                    position += log.transferTo(position, end - position, channel);
+                } else if (!awaitPublished(position, HEARTBEAT_NANOS)) {
+                    heartbeat.clear();
+                    int start = ChangeLog.beginFrame(heartbeat, ChangeLog.HEARTBEAT, publishedSequence, ChangeLog.nowMicros());
+                    ChangeLog.endFrame(heartbeat, start, 0, heartbeatCrc);
+                    ChangeLog.writeFully(channel, heartbeat.flip());
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) System.out.println("Follower disconnected: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (follower != null) followers.remove(follower);
+        }
+    }
+
+    private static void readAcks(SocketChannel channel, Follower follower) {
+        ByteBuffer ack = ByteBuffer.allocate(8);
+        try {
+            while (true) {
+                ack.clear();
+                ChangeLog.readFully(channel, ack);
+                follower.ackedSequence = ack.getLong(0);
+            }
+        } catch (IOException e) {
+            // Connection closed; serveFollower reports it
+        }
+    }
+
+    public long sequence() {
+        return publishedSequence;
+    }
+
+    public long baseSequence() {
+        return baseSequence;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Entries the slowest connected follower has not yet acknowledged, or 0 if none is connected.
+     */
+    public long maxFollowerLag() {
+        long lag = 0;
+        for (Follower follower : followers) {
+            lag = Math.max(lag, publishedSequence - follower.ackedSequence);
+        }
+        return lag;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(
+                "ReplicatedPriceStore[sequence=%,d base=%,d batches=%,d log=%,.1f MB followers=%d",
+                publishedSequence, baseSequence, batches, publishedPosition / (1024.0 * 1024.0), followers.size()));
+        for (Follower follower : followers) {
+            sb.append(String.format(" %s acked=%,d behind=%,d", follower.address, follower.ackedSequence,
+                    Math.max(0, publishedSequence - follower.ackedSequence)));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Stops serving and flushes the pending batch. The map itself is left open for the caller.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        closed = true;
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (server != null) server.close();
+        LockSupport.unpark(flusher);
+        log.close();
+    }
+
+    private static final class Follower {
+        final String address;
+        volatile long ackedSequence;
+
+        Follower(String address, long ackedSequence) {
+            this.address = address;
+            this.ackedSequence = ackedSequence;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+import org.workload.WorkloadGenerator;
+import org.workload.WorkloadStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
+import static org.zerogc.ChronicleMapPerformanceTest.SYMBOL_LENGTH;
+import static org.zerogc.ChronicleMapPerformanceTest.createAverageSymbol;
+
+/**
+ * Change-log replication of the 5M-entry price map to hot standbys.
+ * <p>
+ * With no arguments the leader, a TCP follower and a file-tailing follower run in one JVM,
+ * each with its own persisted map: followers catch up from a snapshot plus the log tail while
+ * prices are updated, the TCP follower is restarted to catch up from its log position, and
+ * finally every entry is compared with the leader. To run them as separate processes, start
+ * one JVM with {@code leader} and others with {@code follower tcp} or {@code follower file}.
+ */
+public class ReplicationBenchmark {
+    private static final int NUM_SYMBOLS = 5_000_000;
+    private static final int UPDATES_PER_SECOND = 200_000;
+    private static final int RUN_SECONDS = 10;
+    private static final int RESTART_DOWNTIME_SECONDS = 2;
+    private static final int PORT = 9_700;
+    private static final File LEADER_MAP = new File("price_leader_map.dat");
+    private static final File CHANGE_LOG = new File("price_change.log");
+    private static final File SNAPSHOT = new File("price_snapshot.dat");
+
+    private static volatile boolean updating = true;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "all";
+        switch (mode) {
+            case "leader" -> runLeader();
+            case "follower" -> runFollower(args.length > 1 ? args[1] : "tcp");
+            default -> runAll();
+        }
+    }
+
+    private static void runAll() throws Exception {
+        OptionSymbol[] symbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        ChronicleMap<OptionSymbol, Double> leaderMap = loadLeaderMap(symbols);
+        ReplicatedPriceStore store = new ReplicatedPriceStore(leaderMap, CHANGE_LOG);
+        int port = store.serve(0);
+        writeSnapshot(store);
+        Thread updater = startUpdater(store, symbols);
+
+        ChronicleMap<OptionSymbol, Double> tcpMap = replicaMap("tcp", true);
+        PriceReplica tcp = new PriceReplica(tcpMap, sequenceFile("tcp"));
+        InetSocketAddress leader = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        Thread tcpThread = follow("tcp", tcp, leader);
+        awaitCatchUp("TCP follower, snapshot + log tail", tcp, store.sequence());
+
+        ChronicleMap<OptionSymbol, Double> fileMap = replicaMap("file", true);
+        PriceReplica file = new PriceReplica(fileMap, sequenceFile("file"));
+        Thread fileThread = follow("file", file, null);
+        awaitCatchUp("File follower, snapshot + log tail", file, store.sequence());
+
+        System.out.println("\nSteady state at " + UPDATES_PER_SECOND + " updates/s:");
+        for (int second = 1; second <= RUN_SECONDS; second++) {
+            Thread.sleep(1000);
+            printLag(store, "tcp", tcp);
+            printLag(store, "file", file);
+        }
+
+        System.out.println("\nRestarting TCP follower after " + RESTART_DOWNTIME_SECONDS + " s down...");
+        tcp.close();
+        tcpThread.join();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(RESTART_DOWNTIME_SECONDS));
+        tcp = new PriceReplica(tcpMap, sequenceFile("tcp"));
+        System.out.printf("Resuming from sequence %,d, leader at %,d%n", tcp.appliedSequence(), store.sequence());
+        tcpThread = follow("tcp", tcp, leader);
+        awaitCatchUp("TCP follower, log tail only", tcp, store.sequence());
+
+        updating = false;
+        updater.join();
+        store.flush();
+        awaitCatchUp("TCP follower, final", tcp, store.sequence());
+        awaitCatchUp("File follower, final", file, store.sequence());
+        verify(symbols, leaderMap, "tcp", tcpMap);
+        verify(symbols, leaderMap, "file", fileMap);
+
+        tcp.close();
+        file.close();
+        store.close();
+        tcpThread.join();
+        fileThread.join();
+        tcpMap.close();
+        fileMap.close();
+        leaderMap.close();
+        System.out.println("\nBenchmark completed and maps closed.");
+    }
+
+    private static void runLeader() throws Exception {
+        OptionSymbol[] symbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        ChronicleMap<OptionSymbol, Double> leaderMap = loadLeaderMap(symbols);
+        ReplicatedPriceStore store = new ReplicatedPriceStore(leaderMap, CHANGE_LOG);
+        store.serve(PORT);
+        writeSnapshot(store);
+        startUpdater(store, symbols);
+        System.out.println("Leader serving on port " + PORT + " at " + UPDATES_PER_SECOND + " updates/s, Ctrl-C to stop");
+        while (true) {
+            Thread.sleep(1000);
+            System.out.println(store);
+        }
+    }
+
+    private static void runFollower(String transport) throws Exception {
+        ChronicleMap<OptionSymbol, Double> map = replicaMap(transport, false);
+        PriceReplica replica = new PriceReplica(map, sequenceFile(transport));
+        System.out.printf("Follower (%s) resuming from sequence %,d%n", transport, replica.appliedSequence());
+        follow(transport, replica, new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT));
+        while (true) {
+            Thread.sleep(1000);
+            System.out.println(replica + " lag " + replica.drainLagSummary());
+        }
+    }
+
+    // Loads the map directly, before the store wraps it: this is what a standby would otherwise redo
+    private static ChronicleMap<OptionSymbol, Double> loadLeaderMap(OptionSymbol[] symbols) throws IOException {
+        for (File file : new File[]{LEADER_MAP, CHANGE_LOG, SNAPSHOT}) {
+            if (file.exists()) file.delete();
+        }
+        long start = System.nanoTime();
+        ChronicleMap<OptionSymbol, Double> map = createMap("price-leader", LEADER_MAP);
+        RandomGenerator random = WorkloadGenerator.builder(NUM_SYMBOLS).seed(SEED).build().stream(0).random();
+        for (OptionSymbol symbol : symbols) {
+            map.put(symbol, 100.0 + random.nextDouble() * 900.0);
+        }
+        System.out.printf("Leader map built from scratch: %,d entries in %.2f s%n", map.size(),
+                (System.nanoTime() - start) / 1_000_000_000.0);
+        return map;
+    }
+
+    private static void writeSnapshot(ReplicatedPriceStore store) throws IOException {
+        long start = System.nanoTime();
+        store.writeSnapshot(SNAPSHOT);
+        System.out.printf("Snapshot written: %,.1f MB in %.2f s%n", SNAPSHOT.length() / (1024.0 * 1024.0),
+                (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static ChronicleMap<OptionSymbol, Double> replicaMap(String transport, boolean fresh) throws IOException {
+        File mapFile = new File("price_replica_" + transport + "_map.dat");
+        if (fresh) {
+            mapFile.delete();
+            sequenceFile(transport).delete();
+        }
+        return createMap("price-replica-" + transport, mapFile);
+    }
+
+    private static File sequenceFile(String transport) {
+        return new File("price_replica_" + transport + ".seq");
+    }
+
+    // A restarted follower reopens its own map file rather than rebuilding it
+    private static ChronicleMap<OptionSymbol, Double> createMap(String name, File file) throws IOException {
+        ChronicleMapBuilder<OptionSymbol, Double> builder = ChronicleMap
+                .of(OptionSymbol.class, Double.class)
+                .name(name)
+                .entries(NUM_SYMBOLS)
+                .keyMarshaller(OptionSymbolMarshaller.INSTANCE)
+                .constantKeySizeBySample(createAverageSymbol(SYMBOL_LENGTH))
+                .putReturnsNull(true);
+        return file.exists() ? builder.recoverPersistedTo(file, true) : builder.createPersistedTo(file);
+    }
+
+    // Zipfian price updates paced at a fixed rate, as a pricing engine would publish them
+    private static Thread startUpdater(ReplicatedPriceStore store, OptionSymbol[] symbols) {
+        WorkloadStream stream = WorkloadGenerator.builder(NUM_SYMBOLS).seed(SEED).zipfian(0.99).build().stream(1);
+        long interval = TimeUnit.SECONDS.toNanos(1) / UPDATES_PER_SECOND;
+        return Thread.ofPlatform().name("price-updater").start(() -> {
+            RandomGenerator random = stream.random();
+            long next = System.nanoTime();
+            while (updating) {
+                next += interval;
+                long wait = next - System.nanoTime();
+                if (wait > 50_000) {
+                    LockSupport.parkNanos(wait);
+                }
+                store.put(stream.nextKey(symbols), 100.0 + random.nextDouble() * 900.0);
+            }
+        });
+    }
+
+    private static Thread follow(String transport, PriceReplica replica, InetSocketAddress leader) {
+        return Thread.ofPlatform().name("replica-" + transport).start(() -> {
+            try {
+                if (transport.equals("file")) {
+                    replica.followFile(SNAPSHOT, CHANGE_LOG);
+                } else {
+                    replica.followTcp(leader);
+                }
+            } catch (IOException e) {
+                System.out.println("Follower (" + transport + ") stopped: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void awaitCatchUp(String label, PriceReplica replica, long sequence) throws InterruptedException {
+        long start = System.nanoTime();
+        while (replica.appliedSequence() < sequence) {
+            Thread.sleep(1);
+        }
+        System.out.printf("%-36s caught up to %,d in %.3f s (%s)%n", label + ":", sequence,
+                (System.nanoTime() - start) / 1_000_000_000.0, replica);
+    }
+
+    private static void printLag(ReplicatedPriceStore store, String transport, PriceReplica replica) {
+        System.out.printf("  %-4s behind %,7d entries | lag %s%n", transport, replica.entriesBehind(),
+                replica.drainLagSummary());
+        if (transport.equals("tcp")) {
+            System.out.printf("  leader sequence %,d, slowest acknowledged follower %,d entries behind%n",
+                    store.sequence(), store.maxFollowerLag());
+        }
+    }
+
+    private static void verify(OptionSymbol[] symbols, ChronicleMap<OptionSymbol, Double> leaderMap,
+                               String transport, ChronicleMap<OptionSymbol, Double> replicaMap) {
+        long mismatches = 0;
+        for (OptionSymbol symbol : symbols) {
+            if (!leaderMap.get(symbol).equals(replicaMap.get(symbol))) {
+                mismatches++;
+            }
+        }
+        System.out.printf("Verified %s follower: %,d entries, %,d mismatches%n", transport, replicaMap.size(), mismatches);
+    }
+}
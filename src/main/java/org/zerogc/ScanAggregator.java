@@ -0,0 +1,68 @@
+package org.zerogc;
+
+/**
+ * Pluggable aggregation run by {@link SymbolMapScanner}: every segment task accumulates into its
+ * own accumulator and the results are combined pairwise as the fork/join tasks complete.
+ *
+ * @param <A> mutable accumulator type
+ */
+public interface ScanAggregator<A> {
+    int CONTRACT_MULTIPLIER = 100; // Equity options cover 100 shares
+
+    A newAccumulator();
+
+    /**
+     * Called once per matching entry. {@code key} is a flyweight valid only during the call.
+     */
+    void accumulate(A accumulator, PackedOptionKey key, double price);
+
+    A combine(A left, A right);
+
+    /**
+     * Contract count and total premium notional (price x 100) per underlying code.
+     */
+    static ScanAggregator<GroupTotals> notionalByUnderlying() {
+        return grouping((key, price) -> key.underlyingCode(), true);
+    }
+
+    /**
+     * Contract count per expiry epoch day.
+     */
+    static ScanAggregator<GroupTotals> countByExpiry() {
+        return grouping((key, price) -> key.expiryEpochDay(), false);
+    }
+
+    /**
+     * Count and sum of prices across all matching entries, in group 0.
+     */
+    static ScanAggregator<GroupTotals> total() {
+        return grouping((key, price) -> 0, false);
+    }
+
+    /**
+     * Groups entries by any primitive derived from the key; sums notional or plain prices.
+     */
+    static ScanAggregator<GroupTotals> grouping(GroupKey groupKey, boolean notional) {
+        return new ScanAggregator<>() {
+            @Override
+            public GroupTotals newAccumulator() {
+                return new GroupTotals();
+            }
+
+            @Override
+            public void accumulate(GroupTotals totals, PackedOptionKey key, double price) {
+                totals.add(groupKey.of(key, price), notional ? price * CONTRACT_MULTIPLIER : price);
+            }
+
+            @Override
+            public GroupTotals combine(GroupTotals left, GroupTotals right) {
+                return left.merge(right);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface GroupKey {
+        long of(PackedOptionKey key, double price);
+    }
+}
@@ -0,0 +1,65 @@
+package org.zerogc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Number of bytes Chronicle Map stores for one key or value, excluding its size prefix.
+ * Used by {@link MapSizingAdvisor} to measure real samples instead of guessing averages.
+ */
+@FunctionalInterface
+public interface SerializedSize<T> {
+
+    int of(T value);
+
+    /**
+     * True when every value has the same size, so the map can skip per-entry size prefixes.
+     */
+    default boolean isConstant() {
+        return false;
+    }
+
+    /**
+     * Default for {@link Serializable} types without a dedicated marshaller: every entry is
+     * written with its own {@link ObjectOutputStream}, stream header and class descriptors included.
+     */
+    static <T extends Serializable> SerializedSize<T> javaSerialization() {
+        return value -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.size();
+        };
+    }
+
+    /**
+     * Default for {@link CharSequence} keys and values: UTF-8 bytes.
+     */
+    static <T extends CharSequence> SerializedSize<T> utf8() {
+        return value -> value.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Fixed-size marshallers such as {@link OptionSymbolMarshaller} or boxed primitives.
+     */
+    static <T> SerializedSize<T> constant(int size) {
+        return new SerializedSize<>() {
+            @Override
+            public int of(T value) {
+                return size;
+            }
+
+            @Override
+            public boolean isConstant() {
+                return true;
+            }
+        };
+    }
+}
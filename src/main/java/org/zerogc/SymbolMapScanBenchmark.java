@@ -0,0 +1,123 @@
+package org.zerogc;
+
+import net.openhft.chronicle.map.ChronicleMap;
+import org.workload.WorkloadGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.time.LocalDate;
+import java.util.random.RandomGenerator;
+
+import static org.zerogc.ChronicleMapPerformanceTest.SEED;
+import static org.zerogc.ChronicleMapPerformanceTest.SYMBOL_LENGTH;
+import static org.zerogc.ChronicleMapPerformanceTest.createAverageSymbol;
+
+/**
+ * "Total notional per underlying" and "contracts per expiry" over the 5M-entry symbol map,
+ * computed by materializing {@code keySet().toArray(...)} and by {@link SymbolMapScanner}.
+ */
+public class SymbolMapScanBenchmark {
+    private static final int NUM_SYMBOLS = 5_000_000;
+    private static final int ROUNDS = 3;
+    private static final String FILE_PATH = "symbol_scan_map.dat";
+
+    public static void main(String[] args) throws IOException {
+        File file = new File(FILE_PATH);
+        if (file.exists()) file.delete();
+
+        System.out.println("Creating and loading ChronicleMap with " + NUM_SYMBOLS + " packed option keys...");
+        ChronicleMap<OptionSymbol, Double> symbolMap = ChronicleMap
+                .of(OptionSymbol.class, Double.class)
+                .name("symbol-scan-map")
+                .entries(NUM_SYMBOLS)
+                .keyMarshaller(OptionSymbolMarshaller.INSTANCE)
+                .constantKeySizeBySample(createAverageSymbol(SYMBOL_LENGTH))
+                .putReturnsNull(true)
+                .createPersistedTo(file);
+
+        OptionSymbol[] symbols = OptionSymbolUniverse.generate(SEED, NUM_SYMBOLS);
+        RandomGenerator random = WorkloadGenerator.builder(NUM_SYMBOLS).seed(SEED).build().stream(0).random();
+        for (OptionSymbol symbol : symbols) {
+            symbolMap.put(symbol, 100.0 + random.nextDouble() * 900.0);
+        }
+        symbols = null; // Let the generator's copies go before measuring heap
+        System.gc();
+        System.out.printf("Loaded %,d entries across %d segments%n", symbolMap.size(), symbolMap.segments());
+
+        SymbolMapScanner scanner = new SymbolMapScanner(symbolMap);
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("\nRound " + round);
+            materializedNotionalByUnderlying(symbolMap);
+
+            long start = System.nanoTime();
+            long heapBefore = heapUsed();
+            GroupTotals notional = scanner.scan(ScanAggregator.notionalByUnderlying());
+            report("Parallel scan: notional by underlying", start, heapBefore);
+            if (round == ROUNDS) printNotional(notional);
+
+            start = System.nanoTime();
+            heapBefore = heapUsed();
+            GroupTotals byExpiry = scanner.scan(ScanAggregator.countByExpiry());
+            report("Parallel scan: contracts by expiry", start, heapBefore);
+            if (round == ROUNDS) {
+                long[] days = byExpiry.sortedGroups();
+                System.out.printf("  %d expiries, first %s (%,d contracts), last %s (%,d contracts)%n", days.length,
+                        LocalDate.ofEpochDay(days[0]), byExpiry.count(days[0]),
+                        LocalDate.ofEpochDay(days[days.length - 1]), byExpiry.count(days[days.length - 1]));
+            }
+
+            LocalDate today = LocalDate.now();
+            KeyFilter frontMonthAaplCalls = KeyFilter.underlying("AAPL")
+                    .and(KeyFilter.optionType(OptionSymbol.OptionType.CALL))
+                    .and(KeyFilter.expiringBetween(today, today.plusDays(30)))
+                    .and(KeyFilter.strikeBetween(150, 200));
+            start = System.nanoTime();
+            heapBefore = heapUsed();
+            GroupTotals filtered = scanner.scan(frontMonthAaplCalls, ScanAggregator.total());
+            report("Parallel scan with key filter: AAPL 150-200 calls, next 30 days", start, heapBefore);
+            if (round == ROUNDS) {
+                System.out.printf("  %,d contracts, average price %.2f%n",
+                        filtered.count(0), filtered.count(0) == 0 ? 0 : filtered.sum(0) / filtered.count(0));
+            }
+        }
+
+        symbolMap.close();
+        System.out.println("\nBenchmark completed and map closed.");
+    }
+
+    // The only option before the scanner: copy every key to the heap, then look each one up
+    private static void materializedNotionalByUnderlying(ChronicleMap<OptionSymbol, Double> symbolMap) {
+        long start = System.nanoTime();
+        long heapBefore = heapUsed();
+        OptionSymbol[] allSymbols = symbolMap.keySet().toArray(OptionSymbol[]::new);
+        GroupTotals totals = new GroupTotals();
+        for (OptionSymbol symbol : allSymbols) {
+            Double price = symbolMap.get(symbol);
+            totals.add(PackedOptionKey.encodeUnderlying(symbol.getUnderlyingSymbol()),
+                    price * ScanAggregator.CONTRACT_MULTIPLIER);
+        }
+        report("keySet().toArray + get: notional by underlying", start, heapBefore);
+    }
+
+    private static void printNotional(GroupTotals notional) {
+        for (long code : notional.sortedGroups()) {
+            System.out.printf("  %-6s %,10d contracts  notional %,20.2f%n",
+                    PackedOptionKey.decodeUnderlying(code), notional.count(code), notional.sum(code));
+        }
+    }
+
+    private static void report(String label, long start, long heapBefore) {
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-66s %8.1f ms | heap delta %,8d MB%n", label,
+                elapsed / 1_000_000.0, (heapUsed() - heapBefore) / (1024 * 1024));
+    }
+
+    private static long heapUsed() {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heapMemory = memoryBean.getHeapMemoryUsage();
+        return heapMemory.getUsed();
+    }
+}
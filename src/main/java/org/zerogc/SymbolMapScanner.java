@@ -0,0 +1,87 @@
+package org.zerogc;
+
+import net.openhft.chronicle.hash.Data;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.MapSegmentContext;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel full scans and aggregations over the option price map without materializing keys.
+ * <p>
+ * The segment range is split recursively on a {@link ForkJoinPool}; each leaf task walks its
+ * segments through {@code segmentContext(i).forEachSegmentEntry}, holding only that segment's
+ * lock while it does. Keys are read in place through a {@link PackedOptionKey} flyweight, the
+ * {@link KeyFilter} is applied before the value is touched, and the price is read straight from
+ * the value bytes. The map must use {@link OptionSymbolMarshaller} for its keys.
+ */
+public class SymbolMapScanner {
+    private final ChronicleMap<OptionSymbol, Double> map;
+    private final ForkJoinPool pool;
+    private final int segmentsPerTask;
+
+    public SymbolMapScanner(ChronicleMap<OptionSymbol, Double> map) {
+        this(map, ForkJoinPool.commonPool());
+    }
+
+    public SymbolMapScanner(ChronicleMap<OptionSymbol, Double> map, ForkJoinPool pool) {
+        this.map = map;
+        this.pool = pool;
+        // Around four leaf tasks per worker keeps the pool busy when segments are uneven
+        this.segmentsPerTask = Math.max(1, map.segments() / (pool.getParallelism() * 4));
+    }
+
+    public <A> A scan(ScanAggregator<A> aggregator) {
+        return scan(KeyFilter.ALL, aggregator);
+    }
+
+    public <A> A scan(KeyFilter filter, ScanAggregator<A> aggregator) {
+        return pool.invoke(new SegmentRangeTask<>(0, map.segments(), filter, aggregator));
+    }
+
+    private <A> A scanSegments(int from, int to, KeyFilter filter, ScanAggregator<A> aggregator) {
+        A accumulator = aggregator.newAccumulator();
+        PackedOptionKey key = new PackedOptionKey();
+        for (int segment = from; segment < to; segment++) {
+            try (MapSegmentContext<OptionSymbol, Double, ?> context = map.segmentContext(segment)) {
+                context.forEachSegmentEntry(entry -> {
+                    Data<OptionSymbol> keyData = entry.key();
+                    key.wrap(keyData.bytes(), keyData.offset());
+                    if (filter.test(key)) {
+                        Data<Double> valueData = entry.value();
+                        aggregator.accumulate(accumulator, key, valueData.bytes().readDouble(valueData.offset()));
+                    }
+                });
+            }
+        }
+        return accumulator;
+    }
+
+    @SuppressWarnings("serial") // Never serialized; fork/join tasks only run in this JVM
+    private final class SegmentRangeTask<A> extends RecursiveTask<A> {
+        private final int from;
+        private final int to;
+        private final KeyFilter filter;
+        private final ScanAggregator<A> aggregator;
+
+        SegmentRangeTask(int from, int to, KeyFilter filter, ScanAggregator<A> aggregator) {
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+            this.aggregator = aggregator;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= segmentsPerTask) {
+                return scanSegments(from, to, filter, aggregator);
+            }
+            int mid = (from + to) >>> 1;
+            SegmentRangeTask<A> right = new SegmentRangeTask<>(mid, to, filter, aggregator);
+            right.fork();
+            A left = new SegmentRangeTask<>(from, mid, filter, aggregator).compute();
+            return aggregator.combine(left, right.join());
+        }
+    }
+}